@@ -1,5 +1,7 @@
 package algorithms;
 
+import dataStructures.stacksAndQueues.IndexedPQ;
+import dataStructures.stacksAndQueues.RadixHeap;
 import dataStructures.trees.UnionFind;
 
 import java.util.*;
@@ -57,41 +59,108 @@ public class GraphAlgorithms {
      *                          // update op - will be performed at most E times
      */
     public int[] spDijkstra(int[][] edges, int N, int K) {
-        // N vertexes 0 based
-        List<List<Integer[]>> adj = new ArrayList();
+        return spDijkstra(edges, N, K, HeapStrategy.INDEXED_BINARY);
+    }
+
+    /**
+     * Priority queue used by Dijkstra:
+     * - INDEXED_BINARY: IndexedPQ, one entry per vertex updated through decreaseKey, O((V+E)log(V))
+     * - RADIX: RadixHeap, monotone queue relying on non negative int costs, duplicates are pushed and skipped when stale.
+     *   No comparisons between entries, O(E + V*log(C)) with C the largest distance
+     */
+    public enum HeapStrategy { INDEXED_BINARY, RADIX }
 
-        for(int i = 0; i<N; i++)  adj.add(new ArrayList());
-        // Edges[i] = {source, dest, cost}
-        for(int[] edg : edges)
-            adj.get(edg[0]).add(new Integer[]{edg[1], edg[2]});
+    public int[] spDijkstra(int[][] edges, int N, int K, HeapStrategy strategy) {
+        // N vertexes 0 based, Edges[i] = {source, dest, cost}
+        int[][] adj = compactAdjacency(edges, N, false);
 
         // Initializing distances
         int[] dist = new int[N];
         Arrays.fill(dist, Integer.MAX_VALUE);
+        dist[K] = 0;
 
-        // The queue contains vertexes with their sp so far, may contain same vertex with multiple distances at the same time
-        // a[0] vertex dist a[1] vertex id
-        Queue<int[]> pq = new PriorityQueue<>((a, b) -> (a[0]-b[0]));
-        pq.offer(new int[]{0,K});
+        if(strategy == HeapStrategy.RADIX) dijkstraRadix(adj, dist, K);
+        else dijkstraIndexed(adj, dist, K);
+
+        return dist;
+    }
+
+    private void dijkstraIndexed(int[][] adj, int[] dist, int K){
+        int[] offsets = adj[0], targets = adj[1], costs = adj[2];
+
+        // The queue holds each vertex at most once with its sp so far, relaxing an edge just decreases its key
+        IndexedPQ pq = new IndexedPQ(dist.length);
+        pq.insert(K, 0);
 
-        int res = 0;
         while(!pq.isEmpty()){
-            int[] cur = pq.poll();
+            // Found sp up to u
+            int u = pq.pollMinIndex();
+            int d = dist[u];
 
-            // already found sp for the node
-            if(dist[cur[1]] <= cur[0]) continue;
-            // Found sp up to it
-            dist[cur[1]] = cur[0];
+            // Relaxing
+            for(int e = offsets[u]; e < offsets[u+1]; e++){
+                int v = targets[e];
+                int nd = d + costs[e];
+                if(nd >= dist[v]) continue;
+
+                dist[v] = nd;
+                if(pq.contains(v)) pq.decreaseKey(v, nd);
+                else pq.insert(v, nd);
+            }
+        }
+    }
+
+    private void dijkstraRadix(int[][] adj, int[] dist, int K){
+        int[] offsets = adj[0], targets = adj[1], costs = adj[2];
+
+        // May contain same vertex with multiple distances at the same time
+        RadixHeap pq = new RadixHeap();
+        pq.push(0, K);
+
+        while(!pq.isEmpty()){
+            int u = pq.popMin();
+            int d = pq.lastKey();
+
+            // already found a shorter path for the node
+            if(d > dist[u]) continue;
 
             // Relaxing
-            List<Integer[]> c_adj = adj.get(cur[1]);
-            for(Integer[] edg : c_adj){
-                if(cur[0]+edg[1] < dist[edg[0]])
-                    pq.offer(new int[]{cur[0] + edg[1], edg[0]});
+            for(int e = offsets[u]; e < offsets[u+1]; e++){
+                int v = targets[e];
+                int nd = d + costs[e];
+                if(nd >= dist[v]) continue;
+
+                dist[v] = nd;
+                pq.push(nd, v);
             }
         }
+    }
 
-        return dist;
+    /**
+     * Builds the adjacency lists of the graph as three flat arrays (compressed sparse row):
+     * the edges leaving vertex u are targets[i], costs[i] for i in offsets[u]..offsets[u+1]-1
+     * Returns {offsets, targets, costs}
+     */
+    private int[][] compactAdjacency(int[][] edges, int N, boolean undirected){
+        int[] offsets = new int[N+1];
+        for(int[] edg : edges){
+            offsets[edg[0]+1]++;
+            if(undirected) offsets[edg[1]+1]++;
+        }
+        for(int i = 0; i<N; i++) offsets[i+1] += offsets[i];
+
+        int[] fill = Arrays.copyOf(offsets, N);
+        int[] targets = new int[offsets[N]];
+        int[] costs = new int[offsets[N]];
+        for(int[] edg : edges){
+            targets[fill[edg[0]]] = edg[1];
+            costs[fill[edg[0]]++] = edg[2];
+            if(undirected){
+                targets[fill[edg[1]]] = edg[0];
+                costs[fill[edg[1]]++] = edg[2];
+            }
+        }
+        return new int[][]{offsets, targets, costs};
     }
 
 
@@ -190,4 +259,52 @@ public class GraphAlgorithms {
 
         return totWeight;
     }
+
+
+// ================================================================================================================
+
+    /**
+     * PRIM'S MINIMUM SPANNING TREE (eager version):
+     * Same input as kruskalMSP, edges[i] = {node, node, weight} of an undirected graph
+     * 1. Start from a node, the priority queue holds for each node not yet in the tree
+     *  the weight of the cheapest edge connecting it to the tree
+     * 2. Poll the cheapest node, add it to the tree and relax its edges: a cheaper edge towards
+     *  a node outside the tree decreases its key
+     * 3. When the queue is empty restart from a node not yet reached, if any (disconnected graph -> spanning forest)
+     *
+     * Time Complexity O(E*log(V)), the indexed queue never holds more than V entries
+     *
+     * @param edges
+     * @param nodes
+     * @return
+     */
+    public int primMSP(int[][] edges, int nodes){
+        int[][] adj = compactAdjacency(edges, nodes, true);
+        int[] offsets = adj[0], targets = adj[1], costs = adj[2];
+
+        boolean[] inTree = new boolean[nodes];
+        IndexedPQ pq = new IndexedPQ(nodes);
+        int totWeight = 0;
+
+        for(int root = 0; root<nodes; root++){
+            if(inTree[root]) continue;
+            pq.insert(root, 0);
+
+            while(!pq.isEmpty()){
+                totWeight += pq.peekMinValue();
+                int u = pq.pollMinIndex();
+                inTree[u] = true;
+
+                for(int e = offsets[u]; e < offsets[u+1]; e++){
+                    int v = targets[e];
+                    if(inTree[v]) continue;
+
+                    if(!pq.contains(v)) pq.insert(v, costs[e]);
+                    else if(costs[e] < pq.valueOf(v)) pq.decreaseKey(v, costs[e]);
+                }
+            }
+        }
+
+        return totWeight;
+    }
 }
@@ -19,42 +19,89 @@ public class Sorting<T extends Comparable<T>> {
         return mergeSort(arr, 0, arr.length);
     }
 
-    // Last is not included
+    // Last is not included, sorts arr[first, last) and returns arr
     public T[] mergeSort(T[] arr, int first, int last){
+        T[] aux = arr.clone();
+        mergeSort(arr, first, last, aux);
+        return arr;
+    }
+
+    // aux is the scratch buffer used by merges, it must be at least as long as arr
+    private void mergeSort(T[] arr, int first, int last, T[] aux){
         int length = last - first;
 
         //AlreadySorted
-        if(length <= 1) return arr;
+        if(length <= 1) return;
 
         int middle = (first + last) / 2;
-        T[] merge1 = mergeSort(arr, first, middle);
-        T[] merge2 = mergeSort(arr, middle +1, last);
+        mergeSort(arr, first, middle, aux);
+        mergeSort(arr, middle, last, aux);
 
-        return merge(merge1, merge2, last-first);
+        merge(arr, first, middle, last, aux);
     }
 
-    private T[] merge(T[] arr1, T[] arr2, int size){
-        int i = 0, j = 0, k = 0;
-        T[] res = (T[]) new Object[size];
+    // Merges the sorted halves arr[first, middle) and arr[middle, last) back into arr
+    private void merge(T[] arr, int first, int middle, int last, T[] aux){
+        System.arraycopy(arr, first, aux, first, last - first);
+        int i = first, j = middle, k = first;
 
-        for(;i < arr1.length && j < arr2.length; k++){
-            if(arr1[i].compareTo(arr2[j]) <= 0){
-                res[k] = arr1[i];
+        for(;i < middle && j < last; k++){
+            if(aux[i].compareTo(aux[j]) <= 0){
+                arr[k] = aux[i];
                 i++;
             }else{
-                res[k] = arr2[j];
+                arr[k] = aux[j];
                 j++;
             }
         }
 
-        while(i < arr1.length){
-            res[k] = arr1[i]; i++; k++;
+        while(i < middle){
+            arr[k] = aux[i]; i++; k++;
+        }
+
+        while(j < last){
+            arr[k] = aux[j]; j++; k++;
         }
+    }
+
+    /**
+     * Parallel merge sort on a WorkStealingPool: each task forks the sort of its left half,
+     * sorts the right half itself, joins the left one and merges. Below threshold elements it falls back to mergeSort
+     */
+    public T[] parallelMergeSort(T[] arr, WorkStealingPool pool, int threshold){
+        T[] aux = arr.clone();
+        pool.invoke(new MergeSortTask(arr, 0, arr.length, aux, Math.max(2, threshold)));
+        return arr;
+    }
+
+    private class MergeSortTask extends WorkStealingPool.Task<Void> {
+        private final T[] arr, aux;
+        private final int first, last, threshold;
+
+        MergeSortTask(T[] arr, int first, int last, T[] aux, int threshold){
+            this.arr = arr;
+            this.first = first;
+            this.last = last;
+            this.aux = aux;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Void compute() {
+            if(last - first <= threshold){
+                mergeSort(arr, first, last, aux);
+                return null;
+            }
+
+            int middle = (first + last) / 2;
+            MergeSortTask left = new MergeSortTask(arr, first, middle, aux, threshold);
+            left.fork();
+            new MergeSortTask(arr, middle, last, aux, threshold).compute();
+            left.join();
 
-        while(j < arr2.length){
-            res[k] = arr2[j]; j++; k++;
+            merge(arr, first, middle, last, aux);
+            return null;
         }
-        return res;
     }
 
 
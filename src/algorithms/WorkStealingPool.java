@@ -0,0 +1,184 @@
+package algorithms;
+
+import dataStructures.stacksAndQueues.WorkStealingDeque;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Minimal fork-join executor built on WorkStealingDeque.
+ *
+ * NOTES:
+ * - Each worker thread owns a deque: tasks forked by a worker are pushed on its own deque and popped back LIFO,
+ *   so a worker keeps running the freshest (smallest, cache hot) subtasks of its recursion
+ * - Idle workers steal from the top of a random deque, taking the oldest (biggest) pending subtasks
+ * - join() never blocks a worker: while the joined task is not done the worker runs its own or stolen tasks
+ * - Tasks submitted by external threads go through a shared queue
+ * - Workers finding no task park until fork() or invoke() signal new work. A worker announces itself idle
+ *   (parked flag, then idleWorkers counter) before checking for tasks one last time, while signalers publish
+ *   the task before reading idleWorkers: either the worker finds the task or the signaler finds the worker parked
+ */
+public class WorkStealingPool {
+
+    /**
+     * Recursive task: compute() may fork() subtasks and join() them, as in java.util.concurrent.RecursiveTask
+     */
+    public static abstract class Task<R> {
+        private volatile boolean done = false;
+        private R result;
+        private Throwable error;
+
+        protected abstract R compute();
+
+        // Schedules the task on the current worker deque, must be called from within a running task
+        public final Task<R> fork(){
+            Worker worker = currentWorker();
+            if(worker == null) throw new IllegalStateException("fork() called outside of a WorkStealingPool");
+            worker.deque.push(this);
+            worker.pool.signalWork();
+            return this;
+        }
+
+        public final R join(){
+            Worker worker = currentWorker();
+            if(worker != null){
+                // Helping: run other tasks until this one is done
+                while(!done){
+                    Task<?> task = worker.nextTask();
+                    if(task != null) task.run();
+                    else Thread.onSpinWait();
+                }
+            } else {
+                synchronized (this){
+                    while(!done){
+                        try { wait(); } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }
+            }
+
+            if(error != null) throw new RuntimeException(error);
+            return result;
+        }
+
+        public final boolean isDone(){ return done; }
+
+        final void run(){
+            try {
+                result = compute();
+            } catch (Throwable e) {
+                error = e;
+            }
+            done = true;
+            synchronized (this){ notifyAll(); }
+        }
+    }
+
+    private static final class Worker extends Thread {
+        final WorkStealingPool pool;
+        final WorkStealingDeque<Task<?>> deque = new WorkStealingDeque<>();
+        // True while the worker is (about to be) parked waiting for work
+        volatile boolean parked = false;
+
+        Worker(WorkStealingPool pool, int id){
+            super("work-stealing-worker-" + id);
+            this.pool = pool;
+            setDaemon(true);
+        }
+
+        // Own deque first, then a random victim, then the external submissions
+        Task<?> nextTask(){
+            Task<?> task = deque.pop();
+            if(task != null) return task;
+
+            Worker[] workers = pool.workers;
+            int start = ThreadLocalRandom.current().nextInt(workers.length);
+            for(int i = 0; i < workers.length; i++){
+                Worker victim = workers[(start + i) % workers.length];
+                if(victim == this) continue;
+                task = victim.deque.steal();
+                if(task != null) return task;
+            }
+            return pool.submissions.poll();
+        }
+
+        @Override
+        public void run() {
+            while(!pool.shutdown){
+                Task<?> task = nextTask();
+                if(task == null){
+                    parked = true;
+                    pool.idleWorkers.incrementAndGet();
+
+                    // Last check, work signaled before idleWorkers was incremented is found here
+                    task = nextTask();
+                    if(task == null){
+                        while(parked && !pool.shutdown) LockSupport.park(this);
+                    }
+                    parked = false;
+                    pool.idleWorkers.decrementAndGet();
+                }
+                if(task != null) task.run();
+            }
+        }
+    }
+
+    private final Worker[] workers;
+    private final ConcurrentLinkedQueue<Task<?>> submissions = new ConcurrentLinkedQueue<>();
+    private volatile boolean shutdown = false;
+    // Number of workers which are parked or about to park
+    private final AtomicInteger idleWorkers = new AtomicInteger();
+
+    public WorkStealingPool(){
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public WorkStealingPool(int parallelism){
+        if(parallelism <= 0) throw new IllegalArgumentException("Illegal parallelism");
+        workers = new Worker[parallelism];
+        for(int i = 0; i < parallelism; i++) workers[i] = new Worker(this, i);
+        for(Worker worker : workers) worker.start();
+    }
+
+    public int parallelism(){
+        return workers.length;
+    }
+
+    // Runs task on the pool and waits for its result
+    public <R> R invoke(Task<R> task){
+        if(shutdown) throw new IllegalStateException("Pool shut down");
+        Worker worker = currentWorker();
+        if(worker != null && worker.pool == this) return task.compute();
+
+        submissions.add(task);
+        signalWork();
+        return task.join();
+    }
+
+    // Workers stop once they are done with their current task
+    public void shutdown(){
+        shutdown = true;
+        for(Worker worker : workers) LockSupport.unpark(worker);
+    }
+
+    // Wakes up a parked worker, if any, after a new task has been published
+    private void signalWork(){
+        if(idleWorkers.get() == 0) return;
+        for(Worker worker : workers){
+            if(worker.parked){
+                worker.parked = false;
+                LockSupport.unpark(worker);
+                return;
+            }
+        }
+    }
+
+    private static Worker currentWorker(){
+        Thread thread = Thread.currentThread();
+        return thread instanceof Worker ? (Worker) thread : null;
+    }
+}
@@ -0,0 +1,239 @@
+package dataStructures;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread safe separate chaining hash table based on lock striping.
+ *
+ * NOTES:
+ * - The table is split in a power of two number of segments, each one with its own lock, bucket array and size.
+ *   The segment of a key is chosen with the high bits of its hash, the bucket within the segment with the low bits.
+ *   Writers on different segments never contend.
+ * - Chain nodes have final key, hash and next pointer and a volatile value: get/containsKey never lock,
+ *   they just read the volatile bucket array and walk a chain which is never modified in place.
+ *   Insertions prepend a new node, removals copy the nodes preceding the removed one.
+ * - Each segment resizes on its own while holding only its lock: readers keep using the old bucket array
+ *   until the new one is published, writers on the other segments are not blocked at all.
+ * @param <K>
+ * @param <V>
+ */
+public class ConcurrentHashTableSepChain<K, V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+    private static final double DEFAULT_LOAD_FACTOR = 0.75;
+    private static final int MAX_SEGMENTS = 1 << 16;
+
+    private final Segment<K, V>[] segments;
+    // Number of bits used to select the segment
+    private final int segmentShift;
+
+
+    public ConcurrentHashTableSepChain(){
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    public ConcurrentHashTableSepChain(int capacity){
+        this(capacity, DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * @param capacity initial number of buckets over all segments
+     * @param maxLoadFactor resize threshold of each segment
+     * @param concurrencyLevel expected number of concurrent writers, rounded up to a power of two number of segments
+     */
+    public ConcurrentHashTableSepChain(int capacity, double maxLoadFactor, int concurrencyLevel){
+        if(capacity < 0) throw new IllegalArgumentException("Illegal capacity");
+        if(maxLoadFactor <= 0 || Double.isNaN(maxLoadFactor) || Double.isInfinite(maxLoadFactor))
+            throw new IllegalArgumentException("Illegal maxLoadFactor");
+        if(concurrencyLevel <= 0) throw new IllegalArgumentException("Illegal concurrencyLevel");
+
+        int numSegments = 1, bits = 0;
+        while(numSegments < Math.min(concurrencyLevel, MAX_SEGMENTS)){
+            numSegments <<= 1;
+            bits++;
+        }
+        segmentShift = 32 - bits;
+
+        int segmentCapacity = 2;
+        while(segmentCapacity * numSegments < capacity) segmentCapacity <<= 1;
+
+        @SuppressWarnings("unchecked")
+        Segment<K, V>[] segs = (Segment<K, V>[]) new Segment<?, ?>[numSegments];
+        for(int i = 0; i < numSegments; i++) segs[i] = new Segment<>(segmentCapacity, maxLoadFactor);
+        segments = segs;
+    }
+
+    /**
+     * Sum of the segment sizes, exact only when no writer is running
+     */
+    public int size(){
+        long size = 0;
+        for(Segment<K, V> segment : segments) size += segment.count;
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    public boolean isEmpty(){
+        for(Segment<K, V> segment : segments) if(segment.count != 0) return false;
+        return true;
+    }
+
+    public void clear(){
+        for(Segment<K, V> segment : segments) segment.clear();
+    }
+
+    public boolean containsKey(K key){
+        if(key == null) return false;
+        int hash = hash(key);
+        return segmentFor(hash).find(key, hash) != null;
+    }
+
+    public V get(K key){
+        if(key == null) return null;
+        int hash = hash(key);
+        Node<K, V> node = segmentFor(hash).find(key, hash);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * @return the previous value associated with key or null if there was none
+     */
+    public V put(K key, V value){
+        if(key == null) throw new IllegalArgumentException("Null key");
+        if(value == null) throw new IllegalArgumentException("Null value");
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value);
+    }
+
+    public V remove(K key){
+        if(key == null) throw new IllegalArgumentException("Null key");
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+
+    private Segment<K, V> segmentFor(int hash){
+        // With a single segment the shift is 32 which java reduces to 0, hence the explicit check
+        return segments.length == 1 ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    // Spreads the bits of hashCode since both its high bits (segment) and low bits (bucket) are used
+    private static int hash(Object key){
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+
+    private static final class Node<K, V> {
+        final int hash;
+        final K key;
+        final Node<K, V> next;
+        volatile V value;
+
+        Node(int hash, K key, V value, Node<K, V> next){
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    private static final class Segment<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final double maxLoadFactor;
+        // Written only under the lock, volatile to publish new tables and sizes to readers
+        private volatile AtomicReferenceArray<Node<K, V>> table;
+        private volatile int count = 0;
+        private int threshold;
+
+        Segment(int capacity, double maxLoadFactor){
+            this.maxLoadFactor = maxLoadFactor;
+            this.table = new AtomicReferenceArray<>(capacity);
+            this.threshold = (int) (maxLoadFactor * capacity);
+        }
+
+        // Lock free read
+        Node<K, V> find(K key, int hash){
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            for(Node<K, V> node = tab.get(hash & (tab.length() - 1)); node != null; node = node.next){
+                if(node.hash == hash && key.equals(node.key)) return node;
+            }
+            return null;
+        }
+
+        V put(K key, int hash, V value){
+            lock.lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> tab = table;
+                int idx = hash & (tab.length() - 1);
+                Node<K, V> head = tab.get(idx);
+
+                for(Node<K, V> node = head; node != null; node = node.next){
+                    if(node.hash == hash && key.equals(node.key)){
+                        V oldVal = node.value;
+                        node.value = value;
+                        return oldVal;
+                    }
+                }
+
+                tab.set(idx, new Node<>(hash, key, value, head));
+                if(++count > threshold) increaseCapacity();
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        V remove(K key, int hash){
+            lock.lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> tab = table;
+                int idx = hash & (tab.length() - 1);
+                Node<K, V> head = tab.get(idx);
+
+                Node<K, V> target = head;
+                while(target != null && !(target.hash == hash && key.equals(target.key))) target = target.next;
+                if(target == null) return null;
+
+                // Nodes after target are shared, the ones before it are copied since next is final
+                Node<K, V> newHead = target.next;
+                for(Node<K, V> node = head; node != target; node = node.next)
+                    newHead = new Node<>(node.hash, node.key, node.value, newHead);
+
+                tab.set(idx, newHead);
+                count--;
+                return target.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear(){
+            lock.lock();
+            try {
+                table = new AtomicReferenceArray<>(table.length());
+                count = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Called holding the lock, readers keep walking the old table until the new one is published
+        private void increaseCapacity(){
+            AtomicReferenceArray<Node<K, V>> oldTab = table;
+            int newCapacity = oldTab.length() * 2;
+            AtomicReferenceArray<Node<K, V>> newTab = new AtomicReferenceArray<>(newCapacity);
+
+            for(int i = 0; i < oldTab.length(); i++){
+                for(Node<K, V> node = oldTab.get(i); node != null; node = node.next){
+                    int newIdx = node.hash & (newCapacity - 1);
+                    newTab.set(newIdx, new Node<>(node.hash, node.key, node.value, newTab.get(newIdx)));
+                }
+            }
+
+            threshold = (int) (maxLoadFactor * newCapacity);
+            table = newTab;
+        }
+    }
+}
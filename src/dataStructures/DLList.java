@@ -5,36 +5,55 @@ public class DLList<T> {
     private DNode<T> tail;
     private int size = 0;
 
+    // Opt-in free list of recycled nodes, chained through next.
+    // With maxFreeNodes > 0 removed nodes are kept (up to that bound) and reused by later insertions,
+    // thus a list whose size stays within the pool bound allocates nothing in steady state
+    private DNode<T> freeNodes;
+    private int freeCount = 0;
+    private final int maxFreeNodes;
+
+    public DLList(){
+        this(0);
+    }
+
+    /**
+     * @param maxFreeNodes max number of removed nodes kept for reuse, 0 disables pooling
+     */
+    public DLList(int maxFreeNodes){
+        if(maxFreeNodes < 0) throw new IllegalArgumentException("maxFreeNodes must be greater or equal than 0");
+        this.maxFreeNodes = maxFreeNodes;
+    }
 
 
     public void clear(){
         DNode<T> curr = head;
         while(curr != null){
             DNode<T> next = curr.next;
-            curr.setValue(null);
-            curr.setPrevious(null);
-            curr.setNext(null);
+            recycle(curr);
             curr = next;
         }
 
         head = tail = null;
+        size = 0;
     }
 
     public int size(){ return size;}
-    public boolean isEmpty() { return isEmpty();}
+    public boolean isEmpty() { return size == 0;}
 
     public void add(T elem){
-        DNode<T> nodeElem = new DNode<>(elem);
+        DNode<T> nodeElem = newNode(elem);
         if(isEmpty()){
             head = tail = nodeElem;
         }else{
             tail.setNext(nodeElem);
+            nodeElem.setPrevious(tail);
+            tail = nodeElem;
         }
         size++;
     }
 
     public void addFirst(T elem){
-        DNode<T> nodeElem = new DNode<>(elem);
+        DNode<T> nodeElem = newNode(elem);
         if(isEmpty()){
             head = tail = nodeElem;
         }else{
@@ -59,26 +78,30 @@ public class DLList<T> {
         if(isEmpty()) throw new RuntimeException("Empty list!");
 
         DNode<T> curHead = head;
+        T data = curHead.value();
         head = curHead.getNext();
-        head.previous = null;
-        curHead.setNext(null);
         size--;
 
         if(isEmpty()) tail = null;
-        return curHead.value();
+        else head.previous = null;
+
+        recycle(curHead);
+        return data;
     }
 
     public T removeLast(){
         if(isEmpty()) throw new RuntimeException("Empty list!");
 
         DNode<T> curTail = tail;
+        T data = curTail.value();
         tail = curTail.getPrevious();
-        tail.next = null;
-        curTail.setPrevious(null);
         size--;
 
         if(isEmpty()) head = null;
-        return curTail.value();
+        else tail.next = null;
+
+        recycle(curTail);
+        return data;
     }
 
     public T removeAt(int idx){
@@ -89,7 +112,7 @@ public class DLList<T> {
 
         if( idx > size/2 ){
             removeNode = tail;
-            base = size;
+            base = size-1;
             step = -1;
         }else {
             removeNode = head;
@@ -98,7 +121,7 @@ public class DLList<T> {
         }
 
         while(base != idx) {
-            removeNode = removeNode.next;
+            removeNode = step > 0 ? removeNode.next : removeNode.previous;
             base += step;
         }
 
@@ -158,11 +181,33 @@ public class DLList<T> {
         size--;
 
         T data = node.value();
+        recycle(node);
+
+        return data;
+    }
+
+    private DNode<T> newNode(T elem){
+        if(freeNodes == null) return new DNode<>(elem);
+
+        DNode<T> node = freeNodes;
+        freeNodes = node.getNext();
+        freeCount--;
+        node.setNext(null);
+        node.setValue(elem);
+        return node;
+    }
+
+    // Clears node references, then keeps it for reuse if the pool is not full
+    private void recycle(DNode<T> node){
         node.setValue(null);
         node.setPrevious(null);
         node.setNext(null);
 
-        return data;
+        if(freeCount < maxFreeNodes){
+            node.setNext(freeNodes);
+            freeNodes = node;
+            freeCount++;
+        }
     }
 
 
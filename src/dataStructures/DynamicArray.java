@@ -1,12 +1,24 @@
 package dataStructures;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class DynamicArray<T> implements Iterable<T> {
 
     private T[] data;
     private int capacity;
     private int len;
+    // Number of structural modifications, lets iterators and spliterators fail fast
+    private int modCount = 0;
 
     public DynamicArray(){
         this(32);
@@ -30,20 +42,65 @@ public class DynamicArray<T> implements Iterable<T> {
         if(len +1 > capacity) doubleSize();
         data[len] = elem;
         len++;
+        modCount++;
     }
 
     public void  removeAt(int index){
         if(index < 0 || index >= len) throw new IndexOutOfBoundsException();
-        for(int i=0, j= 0; i < len-1; i++, j++){
-           if(i == index) j++;
-           data[i] = data[j];
-        }
+        System.arraycopy(data, index+1, data, index, len-index-1);
+        data[--len] = null;
+        modCount++;
     }
 
+    // Removes all the occurrences of elem
     public void remove(T elem){
+        removeIf(e -> Objects.equals(e, elem));
+    }
+
+    /**
+     * Removes all elements matching filter in a single linear pass:
+     * kept elements are compacted towards the front as we scan
+     * @return true if any element has been removed
+     */
+    public boolean removeIf(Predicate<? super T> filter){
+        int kept = 0;
         for(int i = 0; i < len; i++){
-            if(data[i].equals(elem)) removeAt(i);
+            if(!filter.test(data[i])) data[kept++] = data[i];
         }
+
+        boolean removed = kept != len;
+        // Clearing the tail to let removed elements be garbage collected
+        Arrays.fill(data, kept, len, null);
+        len = kept;
+        if(removed) modCount++;
+        return removed;
+    }
+
+    public boolean retainAll(Collection<?> keep){
+        return removeIf(e -> !keep.contains(e));
+    }
+
+    // Removes elements in [from, to)
+    public void removeRange(int from, int to){
+        if(from < 0 || to > len || from > to) throw new IndexOutOfBoundsException();
+        System.arraycopy(data, to, data, from, len-to);
+        Arrays.fill(data, len-(to-from), len, null);
+        len -= to-from;
+        modCount++;
+    }
+
+    // Shrinks the backing array to the current number of elements
+    public void trimToSize(){
+        if(capacity == len) return;
+        data = Arrays.copyOf(data, len);
+        capacity = len;
+    }
+
+    // Grows the backing array, if needed, to hold at least minCapacity elements without further reallocations
+    public void ensureCapacity(int minCapacity){
+        if(minCapacity <= capacity) return;
+        data = Arrays.copyOf(data, minCapacity);
+        capacity = minCapacity;
     }
 
 
@@ -53,14 +110,117 @@ public class DynamicArray<T> implements Iterable<T> {
         else { capacity *= 2; }
 
         T[] newData = (T[]) new Object[capacity];
-        for(int i = 0; i < len; i++) newData[i] = data[i];
+        System.arraycopy(data, 0, newData, 0, len);
 
         this.data = newData;
     }
 
 
+    public Stream<T> stream(){
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    // Splits on index ranges, thus work is spread over the common ForkJoinPool with balanced chunks
+    public Stream<T> parallelStream(){
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     @Override
     public Iterator<T> iterator() {
-        return null;
+        int expModCount = modCount; // to spot concurrent modifications
+
+        return new Iterator<T>() {
+            int next = 0;
+            int expected = expModCount;
+            // Index of the element returned by the last next(), -1 if removed or not yet called
+            int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next < len;
+            }
+
+            @Override
+            public T next() {
+                if(expected != modCount) throw new ConcurrentModificationException();
+                if(next >= len) throw new NoSuchElementException();
+                last = next;
+                return data[next++];
+            }
+
+            @Override
+            public void remove() {
+                if(last < 0) throw new IllegalStateException();
+                if(expected != modCount) throw new ConcurrentModificationException();
+                removeAt(last);
+                next = last;
+                last = -1;
+                expected = modCount;
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return new IndexSpliterator(0, -1, 0);
+    }
+
+    private class IndexSpliterator implements Spliterator<T> {
+        private int idx;
+        // Exclusive upper bound, -1 until first used so that the spliterator binds to the array lazily
+        private int fence;
+        private int expModCount;
+
+        IndexSpliterator(int origin, int fence, int expModCount){
+            this.idx = origin;
+            this.fence = fence;
+            this.expModCount = expModCount;
+        }
+
+        private int getFence(){
+            if(fence < 0){
+                fence = len;
+                expModCount = modCount;
+            }
+            return fence;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int hi = getFence(), lo = idx, mid = (lo + hi) >>> 1;
+            if(lo >= mid) return null;
+            // This spliterator keeps the upper half
+            idx = mid;
+            return new IndexSpliterator(lo, mid, expModCount);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            int hi = getFence();
+            if(idx >= hi) return false;
+            T elem = data[idx++];
+            action.accept(elem);
+            if(expModCount != modCount) throw new ConcurrentModificationException();
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            int hi = getFence();
+            T[] arr = data;
+            for(int i = idx; i < hi; i++) action.accept(arr[i]);
+            idx = hi;
+            if(expModCount != modCount) throw new ConcurrentModificationException();
+        }
+
+        @Override
+        public long estimateSize() {
+            return getFence() - idx;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
     }
 }
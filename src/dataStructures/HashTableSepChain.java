@@ -1,8 +1,14 @@
 package dataStructures;
 
+import dataStructures.trees.AVLTree;
+
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -10,7 +16,7 @@ import java.util.LinkedList;
  * @param <K>
  * @param <V>
  */
-class Entry<K, V>{
+class Entry<K, V> implements Comparable<Entry<K, V>>{
     int hash;
     K key;
     V value;
@@ -25,6 +31,136 @@ class Entry<K, V>{
         if(this.hash != other.hash) return false;
         return key.equals(other.key);
     }
+
+    // Order used within treeified buckets, only valid when both keys are Comparable instances of the same class.
+    // compareTo may be coarser than equals, Bucket never treeifies keys comparing as equal without being equal
+    @Override
+    public int compareTo(Entry<K, V> other){
+        if(this.hash != other.hash) return Integer.compare(this.hash, other.hash);
+        return ((Comparable<K>) key).compareTo(other.key);
+    }
+}
+
+
+/**
+ * Bucket of HashTableSepChain. It starts as a plain chain of entries and, when it grows past treeifyThreshold
+ * and all its keys are Comparable instances of the same class, it is converted to an AVLTree
+ * bounding lookups to O(log(k)) even when many keys collide.
+ * It is converted back to a chain once it shrinks to treeifyThreshold/2 entries.
+ * Since compareTo of the keys may return 0 for keys which are not equal, a bucket holding two such keys
+ * stays (or turns back into) a plain chain: the tree never holds two keys comparing as equal.
+ * @param <K>
+ * @param <V>
+ */
+class Bucket<K, V> implements Iterable<Entry<K, V>>{
+    private int treeifyThreshold;
+    private LinkedList<Entry<K,V>> chain = new LinkedList<>();
+    // Non null when the bucket is treeified, keyClass is then the class of all its keys
+    private AVLTree<Entry<K,V>> tree;
+    private Class<?> keyClass;
+    // Set when keys can't be treeified (different classes or compareTo inconsistent with equals),
+    // cleared once the bucket shrinks to treeifyThreshold/2 entries
+    private boolean treeifyBlocked;
+
+    public Bucket(int treeifyThreshold){
+        this.treeifyThreshold = treeifyThreshold;
+    }
+
+    public int size() { return tree == null ? chain.size() : tree.size(); }
+
+    public boolean isTree() { return tree != null; }
+
+    public Entry<K,V> search(K key){
+        if(tree != null && key.getClass() == keyClass) return treeSearch(key);
+
+        // Keys of another class may still be equal to some tree key, thus we fallback to a linear scan
+        for(Entry<K,V> entry: this){
+            if(key.equals(entry.key)) return entry;
+        }
+        return null;
+    }
+
+    // Same as search, also adding to probes[0] the number of entries compared
+    // (for treeified buckets the tree height is used as upper bound). Only used when stats are enabled
+    public Entry<K,V> searchCounting(K key, int[] probes){
+        if(tree != null && key.getClass() == keyClass){
+            probes[0] += tree.height() + 1;
+            return treeSearch(key);
+        }
+
+        for(Entry<K,V> entry: this){
+            probes[0]++;
+            if(key.equals(entry.key)) return entry;
+        }
+        return null;
+    }
+
+    // The tree never holds two keys comparing as equal, thus a hit on a key which is not equal means key is missing
+    private Entry<K,V> treeSearch(K key){
+        Entry<K,V> entry = tree.find(new Entry<>(key, null));
+        return entry != null && key.equals(entry.key) ? entry : null;
+    }
+
+    // The key of entry must not be already in the bucket
+    public void add(Entry<K,V> entry){
+        if(tree != null){
+            // A false insert means a key comparing as equal to entry.key but not equal to it is already there
+            if(entry.key.getClass() == keyClass && tree.insert(entry)) return;
+            untreeify();
+            treeifyBlocked = true;
+        }
+
+        chain.add(entry);
+        if(chain.size() > treeifyThreshold && !treeifyBlocked) treeify();
+    }
+
+    public Entry<K,V> remove(K key){
+        if(tree != null){
+            Entry<K,V> entry = search(key);
+            if(entry == null) return null;
+            tree.remove(entry);
+            if(tree.size() <= treeifyThreshold/2) untreeify();
+            return entry;
+        }
+
+        for(Iterator<Entry<K,V>> it = chain.iterator(); it.hasNext();){
+            Entry<K,V> entry = it.next();
+            if(key.equals(entry.key)){
+                it.remove();
+                if(chain.size() <= treeifyThreshold/2) treeifyBlocked = false;
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void treeify(){
+        treeifyBlocked = true;
+        Class<?> firstKeyClass = chain.getFirst().key.getClass();
+        if(!Comparable.class.isAssignableFrom(firstKeyClass)) return;
+        for(Entry<K,V> entry: chain) if(entry.key.getClass() != firstKeyClass) return;
+
+        AVLTree<Entry<K,V>> newTree = new AVLTree<>();
+        for(Entry<K,V> entry: chain){
+            // Two keys comparing as equal: the bucket stays a chain
+            if(!newTree.insert(entry)) return;
+        }
+        tree = newTree;
+        keyClass = firstKeyClass;
+        treeifyBlocked = false;
+        chain.clear();
+    }
+
+    private void untreeify(){
+        for(Entry<K,V> entry: tree) chain.add(entry);
+        tree = null;
+        keyClass = null;
+    }
+
+    @Override
+    public Iterator<Entry<K,V>> iterator() {
+        return tree == null ? chain.iterator() : tree.iterator();
+    }
 }
 
 
@@ -32,12 +168,27 @@ public class HashTableSepChain<K,V> implements Iterable<K>{
 
     private static final int DEFAULT_CAPACITY = 3;
     private static final double DEFAULT_LOAD_FACTOR= 0.75;
+    // Max number of non empty buckets moved from the old table on each operation during an incremental resize
+    private static final int MIGRATION_BUCKETS = 4;
+    private static final int DEFAULT_TREEIFY_THRESHOLD = 8;
 
     // Resize after we exceed it -- is numKeys/capacity
     private double maxLoadFactor;
     // threshold is the integer representing the number of keys we can store without exceding the load factor
     private int capacity, threshold, size = 0;
-    private LinkedList<Entry<K,V>>[] table;
+    // Buckets longer than this are converted into balanced trees when their keys are Comparable
+    private int treeifyThreshold;
+    private Bucket<K,V>[] table;
+
+    // Incremental resize (as in Redis dict): instead of rehashing everything in one call
+    // the old table is kept alive and its buckets are moved into the new one a few at a time on each operation.
+    // While oldTable != null lookups must check both tables
+    private boolean incrementalResize;
+    private Bucket<K,V>[] oldTable;
+    private int oldCapacity, migrationIdx;
+
+    // Null unless enableStats() has been called, hot paths only pay a null check when disabled
+    private StatsCounters stats;
 
 
     public HashTableSepChain(){
@@ -49,14 +200,33 @@ public class HashTableSepChain<K,V> implements Iterable<K>{
     }
 
     public HashTableSepChain(int capacity, double maxLoadFactor){
+        this(capacity, maxLoadFactor, false);
+    }
+
+    /**
+     * @param incrementalResize if true the rehash cost of a resize is spread over the following operations
+     *                          instead of being paid entirely by the put exceeding the threshold
+     */
+    public HashTableSepChain(int capacity, double maxLoadFactor, boolean incrementalResize){
+        this(capacity, maxLoadFactor, incrementalResize, DEFAULT_TREEIFY_THRESHOLD);
+    }
+
+    /**
+     * @param treeifyThreshold max length of a bucket chain before it is converted into an AVLTree,
+     *                         use Integer.MAX_VALUE to keep plain chains
+     */
+    public HashTableSepChain(int capacity, double maxLoadFactor, boolean incrementalResize, int treeifyThreshold){
         if(capacity < 0) throw new IllegalArgumentException("Illegal capacity");
         if(maxLoadFactor <= 0 || Double.isNaN(maxLoadFactor) || Double.isInfinite(maxLoadFactor))
             throw new IllegalArgumentException("Illegal maxLoadFactor");
+        if(treeifyThreshold < 2) throw new IllegalArgumentException("Illegal treeifyThreshold");
 
         this.maxLoadFactor = maxLoadFactor;
         this.capacity = Math.max(DEFAULT_CAPACITY, capacity);
-        this.threshold = (int) maxLoadFactor*capacity;
-        table = new LinkedList[this.capacity];
+        this.threshold = (int) (maxLoadFactor*this.capacity);
+        this.incrementalResize = incrementalResize;
+        this.treeifyThreshold = treeifyThreshold;
+        table = new Bucket[this.capacity];
     }
 
     public int size() { return size; }
@@ -65,17 +235,51 @@ public class HashTableSepChain<K,V> implements Iterable<K>{
 
     // Used to convert keyHash in the domain [0, capacity)
     private int normalizeIndex(int keyHash){
+        return normalizeIndex(keyHash, capacity);
+    }
+
+    private int normalizeIndex(int keyHash, int capacity){
         return Math.abs(keyHash) % capacity;
     }
 
     public void clear(){
         Arrays.fill(table, null);
+        oldTable = null;
         size = 0;
     }
 
+    public boolean isResizing() { return oldTable != null; }
+
+    // Starts collecting statistics from scratch
+    public void enableStats() { stats = new StatsCounters(); }
+
+    public void disableStats() { stats = null; }
+
+    /**
+     * @return a snapshot of the statistics collected so far or null if stats are disabled.
+     * The chain length histogram requires a scan of the whole table.
+     */
+    public HashTableStats stats(){
+        if(stats == null) return null;
+
+        long[] chainLengths = new long[StatsCounters.HISTOGRAM_BINS];
+        countChainLengths(table, chainLengths);
+        if(oldTable != null) countChainLengths(oldTable, chainLengths);
+
+        return new HashTableStats(chainLengths, stats.getHits, stats.getHitProbes, stats.getMisses, stats.getMissProbes,
+                stats.resizes, stats.resizeNanos, size, oldTable == null ? capacity : capacity + oldCapacity);
+    }
+
+    private void countChainLengths(Bucket<K,V>[] table, long[] chainLengths){
+        int lastBin = chainLengths.length - 1;
+        for(Bucket<K,V> bucket: table){
+            chainLengths[bucket == null ? 0 : Math.min(bucket.size(), lastBin)]++;
+        }
+    }
+
     public boolean containsKey(K needle){
-        int idx = normalizeIndex(needle.hashCode());
-        return searchEntry(idx, needle) != null;
+        migrateStep();
+        return lookup(needle) != null;
     }
 
 
@@ -86,51 +290,186 @@ public class HashTableSepChain<K,V> implements Iterable<K>{
     public V get(K key){
 
         if(key == null) return null;
-        int bucketIdx = normalizeIndex(key.hashCode());
-        Entry<K, V> entry = searchEntry(bucketIdx, key);
+        migrateStep();
+        Entry<K, V> entry = stats == null ? lookup(key) : countingLookup(key);
         return entry ==  null ? null : entry.value;
     }
 
 
     public V remove(K key){
         if(key == null) throw new IllegalArgumentException("Null key");
-        int bucketIndex = normalizeIndex(key.hashCode());
-        return removeEntry(bucketIndex, key);
+        migrateStep();
+        int hash = key.hashCode();
+        Entry<K,V> entry = removeEntry(table, normalizeIndex(hash), key);
+        if(entry == null && oldTable != null) entry = removeEntry(oldTable, normalizeIndex(hash, oldCapacity), key);
+        return entry == null ? null : entry.value;
+    }
+
+    // ------------------------------------------------------------------------------------------------------------
+    // Batch operations: keys are processed grouped by bucket index rather than in the given order,
+    // so each bucket is visited once per batch walking the table front to back.
+
+    /**
+     * Puts keys[i] -> values[i] for each i, with duplicated keys the last value wins.
+     * The table is resized at most once, up front, to fit the whole batch.
+     * During an incremental resize the batch moves as many old buckets as the same number of single puts would
+     */
+    public void putAll(K[] keys, V[] values){
+        if(keys.length != values.length) throw new IllegalArgumentException("Keys and values lengths differ");
+        for(K key: keys) if(key == null) throw new IllegalArgumentException("Null key");
+
+        ensureCapacity(size + keys.length, keys.length);
+
+        for(long packed: bucketOrder(keys)){
+            int i = (int) packed;
+            Entry<K,V> entry = new Entry<>(keys[i], values[i]);
+
+            // A key not migrated yet is updated in place within the old table
+            if(oldTable != null){
+                Entry<K,V> existingEntry = searchBucket(oldTable[normalizeIndex(entry.hash, oldCapacity)], entry.key);
+                if(existingEntry != null){
+                    existingEntry.value = entry.value;
+                    continue;
+                }
+            }
+            insertEntry((int) (packed >>> 32), entry);
+        }
+    }
+
+    public void putAll(Map<? extends K, ? extends V> map){
+        K[] keys = (K[]) new Object[map.size()];
+        V[] values = (V[]) new Object[map.size()];
+        int i = 0;
+        for(Map.Entry<? extends K, ? extends V> entry: map.entrySet()){
+            keys[i] = entry.getKey();
+            values[i++] = entry.getValue();
+        }
+        putAll(keys, values);
+    }
+
+    /**
+     * Fills out[i] with the value of keys[i], or null if there is none
+     */
+    public void getAll(K[] keys, V[] out){
+        if(out.length < keys.length) throw new IllegalArgumentException("Output array too small");
+
+        for(long packed: bucketOrder(keys)){
+            int i = (int) packed;
+            K key = keys[i];
+            if(key == null){
+                out[i] = null;
+                continue;
+            }
+
+            Entry<K,V> entry = searchEntry((int) (packed >>> 32), key);
+            if(entry == null && oldTable != null) entry = searchBucket(oldTable[normalizeIndex(key.hashCode(), oldCapacity)], key);
+            out[i] = entry == null ? null : entry.value;
+        }
+    }
+
+    // Values are returned in the iteration order of keys
+    public List<V> getAll(Collection<? extends K> keys){
+        V[] out = (V[]) new Object[keys.size()];
+        getAll((K[]) keys.toArray(), out);
+        return new ArrayList<>(Arrays.asList(out));
+    }
+
+    /**
+     * @return the number of keys actually removed
+     */
+    public int removeAll(K[] keys){
+        for(K key: keys) if(key == null) throw new IllegalArgumentException("Null key");
+
+        migrate(migrationBudget(keys.length));
+
+        int removed = 0;
+        for(long packed: bucketOrder(keys)){
+            K key = keys[(int) packed];
+            Entry<K,V> entry = removeEntry(table, (int) (packed >>> 32), key);
+            if(entry == null && oldTable != null) entry = removeEntry(oldTable, normalizeIndex(key.hashCode(), oldCapacity), key);
+            if(entry != null) removed++;
+        }
+        return removed;
+    }
+
+    public int removeAll(Collection<? extends K> keys){
+        return removeAll((K[]) keys.toArray());
+    }
+
+    // Sorting packed (bucketIdx, position) pairs groups keys by bucket, duplicated keys keep their relative order
+    private long[] bucketOrder(K[] keys){
+        long[] order = new long[keys.length];
+        for(int i = 0; i<keys.length; i++){
+            int bucketIdx = keys[i] == null ? 0 : normalizeIndex(keys[i].hashCode());
+            order[i] = ((long) bucketIdx << 32) | i;
+        }
+        Arrays.sort(order);
+        return order;
     }
 
 
 
     private V insert(K key, V value){
         if(key == null) throw new IllegalArgumentException("Null key");
+        migrateStep();
         Entry<K,V> entry = new Entry<>(key, value);
+
+        // A key not migrated yet is updated in place within the old table
+        if(oldTable != null){
+            Entry<K,V> existingEntry = searchBucket(oldTable[normalizeIndex(entry.hash, oldCapacity)], key);
+            if(existingEntry != null){
+                V oldVal = existingEntry.value;
+                existingEntry.value = value;
+                return oldVal;
+            }
+        }
+
         int bucketIdx = normalizeIndex(entry.hash);
         return insertEntry(bucketIdx, entry);
     }
 
+    // Searches key in the current table and, during an incremental resize, in the old one
+    private Entry<K,V> lookup(K key){
+        if(key == null) return null;
+        int hash = key.hashCode();
+        Entry<K,V> entry = searchEntry(normalizeIndex(hash), key);
+        if(entry == null && oldTable != null) entry = searchBucket(oldTable[normalizeIndex(hash, oldCapacity)], key);
+        return entry;
+    }
 
-    private V removeEntry(int bucketIdx, K key){
-        LinkedList<Entry<K,V>> bucketEntries = table[bucketIdx];
+    // Same as lookup, recording the outcome and the number of entries compared into stats
+    private Entry<K,V> countingLookup(K key){
+        int hash = key.hashCode();
+        int[] probes = stats.probes;
+        probes[0] = 0;
+
+        Bucket<K,V> bucket = table[normalizeIndex(hash)];
+        Entry<K,V> entry = bucket == null ? null : bucket.searchCounting(key, probes);
+        if(entry == null && oldTable != null){
+            bucket = oldTable[normalizeIndex(hash, oldCapacity)];
+            if(bucket != null) entry = bucket.searchCounting(key, probes);
+        }
 
-        if (bucketEntries == null) return null;
+        stats.recordGet(entry != null, probes[0]);
+        return entry;
+    }
 
-        for(int i = 0; i<bucketEntries.size(); i++){
-            Entry<K,V> entry = bucketEntries.get(i);
-            if(key.equals(entry.key)){
-                V value = entry.value;
-                bucketEntries.remove(i);
-                size--;
-                return value;
-            }
-        }
 
-        return null;
+    private Entry<K,V> removeEntry(Bucket<K,V>[] table, int bucketIdx, K key){
+        Bucket<K,V> bucketEntries = table[bucketIdx];
+
+        if (bucketEntries == null) return null;
+
+        Entry<K,V> entry = bucketEntries.remove(key);
+        if(entry != null) size--;
+        return entry;
     }
 
     private V insertEntry(int bucketIdx, Entry<K,V> entry){
-        LinkedList<Entry<K,V>> bucketEntries = table[bucketIdx];
+        Bucket<K,V> bucketEntries = table[bucketIdx];
 
         if(bucketEntries == null){
-            table[bucketIdx] = bucketEntries = new LinkedList<>();
+            table[bucketIdx] = bucketEntries = new Bucket<>(treeifyThreshold);
             bucketEntries.add(entry);
             size++;
             evaluateThreshold();
@@ -154,44 +493,121 @@ public class HashTableSepChain<K,V> implements Iterable<K>{
     private Entry<K,V> searchEntry(int idx, K key){
 
         if(key == null) return  null;
-        LinkedList<Entry<K,V>> bucketEntries = table[idx];
-        if(bucketEntries == null) return null;
-
-        for(Entry<K,V> entry: bucketEntries){
-            if(key.equals(entry.key)) return  entry;
-        }
+        return searchBucket(table[idx], key);
+    }
 
-        return null;
+    private Entry<K,V> searchBucket(Bucket<K,V> bucketEntries, K key){
+        if(bucketEntries == null) return null;
+        return bucketEntries.search(key);
     }
 
 
     private void evaluateThreshold(){
-        if(size > threshold) increaseCapacity();
+        // No new resize is started until the previous incremental one is over
+        if(size > threshold && oldTable == null) increaseCapacity();
     }
 
     private void increaseCapacity(){
-        capacity *= 2;
-        threshold = (int) maxLoadFactor*capacity;
+        resize(capacity*2, incrementalResize);
+    }
+
+    // Resizes at most once so that expectedSize keys fit without exceeding the load factor.
+    // Like a resize triggered by a single put, it must wait for a running incremental resize to complete
+    private void ensureCapacity(int expectedSize, int batchSize){
+        int budget = migrationBudget(batchSize);
+        migrate(budget);
+        if(oldTable != null || expectedSize <= threshold) return;
+
+        int newCapacity = capacity;
+        while((int) (maxLoadFactor*newCapacity) < expectedSize) newCapacity *= 2;
+        resize(newCapacity, incrementalResize);
+        migrate(budget);
+    }
 
-        LinkedList<Entry<K,V>>[] newTable = new LinkedList[capacity];
+    // Old buckets a batch of ops operations may move, as much as the same number of single operations
+    private int migrationBudget(int ops){
+        return (int) Math.min((long) MIGRATION_BUCKETS * ops, Integer.MAX_VALUE / 10);
+    }
 
+    private void resize(int newCapacity, boolean incremental){
+        long start = stats == null ? 0 : System.nanoTime();
+        Bucket<K,V>[] prevTable = table;
+        int prevCapacity = capacity;
 
-        for(int i = 0; i<table.length; i++){
-            if(table[i] != null){
+        capacity = newCapacity;
+        threshold = (int) (maxLoadFactor*capacity);
+        table = new Bucket[capacity];
 
-                for(Entry entry: table[i]){
-                    int newBucketIdx = normalizeIndex(entry.hash);
-                    LinkedList<Entry<K,V>> newBucketEntries = newTable[newBucketIdx];
-                    if(newBucketEntries == null) newTable[newBucketIdx] = newBucketEntries = new LinkedList<>();
-                    newBucketEntries.add(entry);
-                }
+        if(incremental){
+            oldTable = prevTable;
+            oldCapacity = prevCapacity;
+            migrationIdx = 0;
+        } else {
+            for(int i = 0; i<prevTable.length; i++){
+                if(prevTable[i] != null) moveBucket(prevTable, i);
+            }
+        }
 
-                table[i].clear();
-                table[i] = null;
+        if(stats != null) stats.recordResize(System.nanoTime() - start);
+    }
+
+    private void migrateStep(){
+        migrate(MIGRATION_BUCKETS);
+    }
+
+    // Moves at most maxBuckets non empty buckets from the old table, visiting a bounded number of empty ones
+    private void migrate(int maxBuckets){
+        if(oldTable == null) return;
+
+        long start = stats == null ? 0 : System.nanoTime();
+        int moved = 0, visited = 0;
+        while(migrationIdx < oldCapacity && moved < maxBuckets && visited < 10*maxBuckets){
+            if(oldTable[migrationIdx] != null){
+                moveBucket(oldTable, migrationIdx);
+                moved++;
             }
+            migrationIdx++;
+            visited++;
         }
 
-        table = newTable;
+        if(migrationIdx == oldCapacity) oldTable = null;
+        if(stats != null) stats.resizeNanos += System.nanoTime() - start;
+    }
+
+    private void moveBucket(Bucket<K,V>[] from, int bucketIdx){
+        for(Entry<K,V> entry: from[bucketIdx]){
+            int newBucketIdx = normalizeIndex(entry.hash);
+            Bucket<K,V> newBucketEntries = table[newBucketIdx];
+            if(newBucketEntries == null) table[newBucketIdx] = newBucketEntries = new Bucket<>(treeifyThreshold);
+            newBucketEntries.add(entry);
+        }
+
+        from[bucketIdx] = null;
+    }
+
+    private static final class StatsCounters {
+        // Chains of length >= HISTOGRAM_BINS-1 share the last bin
+        static final int HISTOGRAM_BINS = 17;
+
+        long getHits, getHitProbes, getMisses, getMissProbes;
+        long resizes, resizeNanos;
+        // Out parameter of Bucket.searchCounting, reused by every counted lookup
+        final int[] probes = new int[1];
+
+        void recordGet(boolean hit, int probes){
+            if(hit){
+                getHits++;
+                getHitProbes += probes;
+            } else {
+                getMisses++;
+                getMissProbes += probes;
+            }
+        }
+
+        void recordResize(long nanos){
+            resizes++;
+            resizeNanos += nanos;
+        }
     }
 
     @Override
@@ -0,0 +1,55 @@
+package dataStructures;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of the statistics collected by HashTableSepChain once enableStats() has been called.
+ * Counters are cumulative since stats were enabled, the histogram and the load factor refer to the snapshot time.
+ */
+public class HashTableStats {
+
+    // chainLengths[i] = number of buckets holding i entries, the last bin counts all the longer ones
+    private final long[] chainLengths;
+    private final long getHits, getHitProbes, getMisses, getMissProbes;
+    private final long resizes, resizeNanos;
+    private final int size, capacity;
+
+    HashTableStats(long[] chainLengths, long getHits, long getHitProbes, long getMisses, long getMissProbes,
+                   long resizes, long resizeNanos, int size, int capacity){
+        this.chainLengths = chainLengths;
+        this.getHits = getHits;
+        this.getHitProbes = getHitProbes;
+        this.getMisses = getMisses;
+        this.getMissProbes = getMissProbes;
+        this.resizes = resizes;
+        this.resizeNanos = resizeNanos;
+        this.size = size;
+        this.capacity = capacity;
+    }
+
+    public long[] chainLengthHistogram() { return Arrays.copyOf(chainLengths, chainLengths.length); }
+
+    public long getHits() { return getHits; }
+    public long getMisses() { return getMisses; }
+
+    // Average number of entries compared by a get which found / did not find its key
+    public double avgProbesPerHit() { return getHits == 0 ? 0 : (double) getHitProbes / getHits; }
+    public double avgProbesPerMiss() { return getMisses == 0 ? 0 : (double) getMissProbes / getMisses; }
+
+    public long resizes() { return resizes; }
+    // Time spent rehashing, including the migration steps of incremental resizes
+    public long resizeNanos() { return resizeNanos; }
+
+    public int size() { return size; }
+    public int capacity() { return capacity; }
+    public double loadFactor() { return capacity == 0 ? 0 : (double) size / capacity; }
+
+    @Override
+    public String toString() {
+        return "HashTableStats{size=" + size + ", capacity=" + capacity + ", loadFactor=" + loadFactor() +
+                ", getHits=" + getHits + ", avgProbesPerHit=" + avgProbesPerHit() +
+                ", getMisses=" + getMisses + ", avgProbesPerMiss=" + avgProbesPerMiss() +
+                ", resizes=" + resizes + ", resizeNanos=" + resizeNanos +
+                ", chainLengthHistogram=" + Arrays.toString(chainLengths) + "}";
+    }
+}
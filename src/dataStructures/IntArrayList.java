@@ -0,0 +1,80 @@
+package dataStructures;
+
+import java.util.Arrays;
+
+/**
+ * DynamicArray specialized for int elements: values are stored unboxed in an int[],
+ * saving the Integer objects and the pointer chase on each read.
+ */
+public class IntArrayList {
+
+    private int[] data;
+    private int len;
+
+    public IntArrayList(){
+        this(32);
+    }
+
+    public IntArrayList(int size){
+        if(size < 0 ) throw new IllegalArgumentException("Size must be greater or equal than 0");
+        this.data = new int[size];
+        this.len = 0;
+    }
+
+    public int size(){ return len; }
+    public boolean isEmpty() { return len == 0;}
+
+    public int get(int idx){
+        checkIndex(idx);
+        return data[idx];
+    }
+
+    public void set(int idx, int value){
+        checkIndex(idx);
+        data[idx] = value;
+    }
+
+    public void add(int elem){
+        if(len == data.length) grow(len + 1);
+        data[len++] = elem;
+    }
+
+    public void addAll(int[] elems){
+        if(len + elems.length > data.length) grow(len + elems.length);
+        System.arraycopy(elems, 0, data, len, elems.length);
+        len += elems.length;
+    }
+
+    public int removeAt(int index){
+        checkIndex(index);
+        int removed = data[index];
+        System.arraycopy(data, index + 1, data, index, len - index - 1);
+        len--;
+        return removed;
+    }
+
+    public void clear(){ len = 0; }
+
+    // Copy of the elements, its length is size()
+    public int[] toArray(){
+        return Arrays.copyOf(data, len);
+    }
+
+    /**
+     * Direct access to the backing array, only the first size() elements are meaningful.
+     * The returned array is no longer the backing one after the list grows.
+     */
+    public int[] backingArray(){
+        return data;
+    }
+
+
+    private void checkIndex(int idx){
+        if(idx < 0 || idx >= len) throw new IndexOutOfBoundsException("Index: " + idx + ", size: " + len);
+    }
+
+    private void grow(int minCapacity){
+        int capacity = Math.max(Math.max(1, data.length * 2), minCapacity);
+        data = Arrays.copyOf(data, capacity);
+    }
+}
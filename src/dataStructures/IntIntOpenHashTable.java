@@ -0,0 +1,169 @@
+package dataStructures;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash table mapping primitive int keys to int values.
+ * Keys and values are stored in parallel arrays, thus once the table has been sized
+ * no object is allocated by put/get/remove (no Entry, no bucket list, no boxing).
+ *
+ * NOTES:
+ * - Capacity is always a power of two so that the bucket index is hash & mask
+ * - Collisions are solved with linear probing: we walk to the next slot until we find the key or a free slot
+ * - Removals use backward shift deletion instead of tombstones, so probe sequences never grow because of deleted keys
+ */
+public class IntIntOpenHashTable {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double DEFAULT_LOAD_FACTOR = 0.75;
+
+    private double maxLoadFactor;
+    // Value returned by get/remove when the key is not present
+    private int missingValue;
+    private int capacity, mask, threshold, size = 0;
+
+    private int[] keys;
+    private int[] values;
+    // used[i] tells whether slot i holds a key, needed since every int is a valid key
+    private boolean[] used;
+
+
+    public IntIntOpenHashTable(){
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR, 0);
+    }
+
+    public IntIntOpenHashTable(int capacity){
+        this(capacity, DEFAULT_LOAD_FACTOR, 0);
+    }
+
+    public IntIntOpenHashTable(int capacity, double maxLoadFactor, int missingValue){
+        if(capacity < 0) throw new IllegalArgumentException("Illegal capacity");
+        if(maxLoadFactor <= 0 || maxLoadFactor >= 1 || Double.isNaN(maxLoadFactor))
+            throw new IllegalArgumentException("Illegal maxLoadFactor");
+
+        this.maxLoadFactor = maxLoadFactor;
+        this.missingValue = missingValue;
+        allocate(tableSizeFor((int) Math.ceil(Math.max(DEFAULT_CAPACITY, capacity) / maxLoadFactor)));
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public int missingValue() { return missingValue; }
+
+    public void clear(){
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    public boolean containsKey(int key){
+        return findSlot(key) >= 0;
+    }
+
+    public int get(int key){
+        int slot = findSlot(key);
+        return slot < 0 ? missingValue : values[slot];
+    }
+
+    /**
+     * @return the previous value associated with key or missingValue if there was none
+     */
+    public int put(int key, int value){
+        int slot = hash(key) & mask;
+
+        while(used[slot]){
+            if(keys[slot] == key){
+                int oldVal = values[slot];
+                values[slot] = value;
+                return oldVal;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        if(++size > threshold) increaseCapacity();
+        return missingValue;
+    }
+
+    /**
+     * @return the value associated with key or missingValue if there was none
+     */
+    public int remove(int key){
+        int slot = findSlot(key);
+        if(slot < 0) return missingValue;
+
+        int oldVal = values[slot];
+        shiftBack(slot);
+        size--;
+        return oldVal;
+    }
+
+
+    private int findSlot(int key){
+        int slot = hash(key) & mask;
+        while(used[slot]){
+            if(keys[slot] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Backward shift deletion: moves back every following key of the cluster
+    // which would not be reachable anymore once the slot is freed
+    private void shiftBack(int free){
+        int slot = (free + 1) & mask;
+
+        while(used[slot]){
+            int home = hash(keys[slot]) & mask;
+            // The key can fill the hole only if its home slot is not in the cyclic range (free, slot]
+            if(((slot - home) & mask) >= ((slot - free) & mask)){
+                keys[free] = keys[slot];
+                values[free] = values[slot];
+                free = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        used[free] = false;
+    }
+
+    private void increaseCapacity(){
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+
+        allocate(capacity * 2);
+
+        for(int i = 0; i < oldKeys.length; i++){
+            if(!oldUsed[i]) continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while(used[slot]) slot = (slot + 1) & mask;
+            used[slot] = true;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity){
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.threshold = (int) (maxLoadFactor * capacity);
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    // Spreads keys over the table, sequential ints would otherwise form a single long cluster
+    static int hash(int key){
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int tableSizeFor(int n){
+        int cap = Integer.highestOneBit(Math.max(1, n - 1)) << 1;
+        return cap < 0 ? 1 << 30 : cap;
+    }
+}
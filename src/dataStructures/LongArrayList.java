@@ -0,0 +1,80 @@
+package dataStructures;
+
+import java.util.Arrays;
+
+/**
+ * DynamicArray specialized for long elements: values are stored unboxed in a long[],
+ * saving the Long objects and the pointer chase on each read.
+ */
+public class LongArrayList {
+
+    private long[] data;
+    private int len;
+
+    public LongArrayList(){
+        this(32);
+    }
+
+    public LongArrayList(int size){
+        if(size < 0 ) throw new IllegalArgumentException("Size must be greater or equal than 0");
+        this.data = new long[size];
+        this.len = 0;
+    }
+
+    public int size(){ return len; }
+    public boolean isEmpty() { return len == 0;}
+
+    public long get(int idx){
+        checkIndex(idx);
+        return data[idx];
+    }
+
+    public void set(int idx, long value){
+        checkIndex(idx);
+        data[idx] = value;
+    }
+
+    public void add(long elem){
+        if(len == data.length) grow(len + 1);
+        data[len++] = elem;
+    }
+
+    public void addAll(long[] elems){
+        if(len + elems.length > data.length) grow(len + elems.length);
+        System.arraycopy(elems, 0, data, len, elems.length);
+        len += elems.length;
+    }
+
+    public long removeAt(int index){
+        checkIndex(index);
+        long removed = data[index];
+        System.arraycopy(data, index + 1, data, index, len - index - 1);
+        len--;
+        return removed;
+    }
+
+    public void clear(){ len = 0; }
+
+    // Copy of the elements, its length is size()
+    public long[] toArray(){
+        return Arrays.copyOf(data, len);
+    }
+
+    /**
+     * Direct access to the backing array, only the first size() elements are meaningful.
+     * The returned array is no longer the backing one after the list grows.
+     */
+    public long[] backingArray(){
+        return data;
+    }
+
+
+    private void checkIndex(int idx){
+        if(idx < 0 || idx >= len) throw new IndexOutOfBoundsException("Index: " + idx + ", size: " + len);
+    }
+
+    private void grow(int minCapacity){
+        int capacity = Math.max(Math.max(1, data.length * 2), minCapacity);
+        data = Arrays.copyOf(data, capacity);
+    }
+}
@@ -0,0 +1,150 @@
+package dataStructures;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash table mapping primitive long keys to object values.
+ * Same layout of IntIntOpenHashTable: linear probing over parallel arrays and backward shift deletion,
+ * so no object is allocated per operation once the table has been sized.
+ * @param <V>
+ */
+public class LongObjectOpenHashTable<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double DEFAULT_LOAD_FACTOR = 0.75;
+
+    private double maxLoadFactor;
+    private int capacity, mask, threshold, size = 0;
+
+    private long[] keys;
+    private V[] values;
+    private boolean[] used;
+
+
+    public LongObjectOpenHashTable(){
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    public LongObjectOpenHashTable(int capacity){
+        this(capacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    public LongObjectOpenHashTable(int capacity, double maxLoadFactor){
+        if(capacity < 0) throw new IllegalArgumentException("Illegal capacity");
+        if(maxLoadFactor <= 0 || maxLoadFactor >= 1 || Double.isNaN(maxLoadFactor))
+            throw new IllegalArgumentException("Illegal maxLoadFactor");
+
+        this.maxLoadFactor = maxLoadFactor;
+        allocate(IntIntOpenHashTable.tableSizeFor((int) Math.ceil(Math.max(DEFAULT_CAPACITY, capacity) / maxLoadFactor)));
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public void clear(){
+        Arrays.fill(used, false);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    public boolean containsKey(long key){
+        return findSlot(key) >= 0;
+    }
+
+    public V get(long key){
+        int slot = findSlot(key);
+        return slot < 0 ? null : values[slot];
+    }
+
+    /**
+     * @return the previous value associated with key or null if there was none
+     */
+    public V put(long key, V value){
+        int slot = hash(key) & mask;
+
+        while(used[slot]){
+            if(keys[slot] == key){
+                V oldVal = values[slot];
+                values[slot] = value;
+                return oldVal;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        if(++size > threshold) increaseCapacity();
+        return null;
+    }
+
+    public V remove(long key){
+        int slot = findSlot(key);
+        if(slot < 0) return null;
+
+        V oldVal = values[slot];
+        shiftBack(slot);
+        size--;
+        return oldVal;
+    }
+
+
+    private int findSlot(long key){
+        int slot = hash(key) & mask;
+        while(used[slot]){
+            if(keys[slot] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void shiftBack(int free){
+        int slot = (free + 1) & mask;
+
+        while(used[slot]){
+            int home = hash(keys[slot]) & mask;
+            if(((slot - home) & mask) >= ((slot - free) & mask)){
+                keys[free] = keys[slot];
+                values[free] = values[slot];
+                free = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        used[free] = false;
+        // Do not keep a reference to the removed value
+        values[free] = null;
+    }
+
+    private void increaseCapacity(){
+        long[] oldKeys = keys;
+        V[] oldValues = values;
+        boolean[] oldUsed = used;
+
+        allocate(capacity * 2);
+
+        for(int i = 0; i < oldKeys.length; i++){
+            if(!oldUsed[i]) continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while(used[slot]) slot = (slot + 1) & mask;
+            used[slot] = true;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity){
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.threshold = (int) (maxLoadFactor * capacity);
+        keys = new long[capacity];
+        values = (V[]) new Object[capacity];
+        used = new boolean[capacity];
+    }
+
+    private static int hash(long key){
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
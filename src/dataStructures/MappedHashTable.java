@@ -0,0 +1,343 @@
+package dataStructures;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * File backed hash table from String keys to byte[] values with the same put/get/remove surface of HashTableSepChain.
+ * The whole table lives in a memory mapped file, so reopening it costs just a header check:
+ * lookups hash the key and compare it directly against the mapped bytes, nothing is deserialized.
+ *
+ * NOTES:
+ * - File layout: a fixed size header followed by capacity fixed size slots
+ *      header: magic | version | capacity | maxKeyBytes | maxValueBytes | size | used | dirty
+ *      slot:   state | keyLen | valueLen | hash | key bytes[maxKeyBytes] | value bytes[maxValueBytes]
+ * - Collisions are solved with linear probing, removed slots become tombstones (used counts live + tombstones)
+ * - A slot is written first and marked as FULL last, so an interrupted insert leaves it EMPTY.
+ *   Values of existing keys are never overwritten in place: the new value goes into a free slot of the key probe sequence,
+ *   which is committed as FULL before the old slot becomes a tombstone. A crash in between leaves two complete copies
+ *   of the key, the one found first by lookups wins and the other one is dropped when the table is reopened
+ * - The dirty flag is set on the first write and cleared by close(), a table not closed properly
+ *   recomputes size and used with a scan when reopened
+ * - The table grows by rehashing into a temporary file which is then atomically renamed over the old one and remapped,
+ *   a crash during the resize leaves the previous file untouched. The directory is synced after the rename
+ * - A single mapping is used, thus the file is limited to 2GB
+ */
+public class MappedHashTable implements Closeable {
+
+    private static final int MAGIC = 0x4D485431;
+    private static final int VERSION = 1;
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    private static final int HEADER_SIZE = 32;
+    private static final int H_MAGIC = 0, H_VERSION = 4, H_CAPACITY = 8, H_MAX_KEY = 12, H_MAX_VALUE = 16,
+            H_SIZE = 20, H_USED = 24, H_DIRTY = 28;
+
+    private static final byte EMPTY = 0, FULL = 1, DELETED = 2;
+    private static final int S_STATE = 0, S_KEY_LEN = 1, S_VALUE_LEN = 3, S_HASH = 7, S_KEY = 11;
+
+    private final Path file;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    private int capacity, maxKeyBytes, maxValueBytes, slotSize;
+    private int size, used;
+    private boolean dirty;
+
+
+    /**
+     * Opens an existing table file
+     */
+    public MappedHashTable(Path file) throws IOException {
+        this.file = file;
+        open();
+    }
+
+    /**
+     * Opens the table file if it exists, otherwise creates it with the given capacity and slot sizes
+     */
+    public MappedHashTable(Path file, int capacity, int maxKeyBytes, int maxValueBytes) throws IOException {
+        if(capacity < 0) throw new IllegalArgumentException("Illegal capacity");
+        if(maxKeyBytes <= 0 || maxKeyBytes > Short.MAX_VALUE) throw new IllegalArgumentException("Illegal maxKeyBytes");
+        if(maxValueBytes < 0) throw new IllegalArgumentException("Illegal maxValueBytes");
+
+        this.file = file;
+        if(!Files.exists(file)) create(file, IntIntOpenHashTable.tableSizeFor((int) Math.ceil(Math.max(16, capacity) / MAX_LOAD_FACTOR)),
+                maxKeyBytes, maxValueBytes).close();
+        open();
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public boolean containsKey(String key){
+        if(key == null) return false;
+        return findSlot(encode(key)) >= 0;
+    }
+
+    public byte[] get(String key){
+        if(key == null) return null;
+        int slot = findSlot(encode(key));
+        return slot < 0 ? null : readValue(slot);
+    }
+
+    /**
+     * @return the previous value associated with key or null if there was none
+     */
+    public byte[] put(String key, byte[] value) throws IOException {
+        if(key == null) throw new IllegalArgumentException("Null key");
+        if(value == null) throw new IllegalArgumentException("Null value");
+        byte[] keyBytes = encode(key);
+        if(keyBytes.length > maxKeyBytes) throw new IllegalArgumentException("Key longer than " + maxKeyBytes + " bytes");
+        if(value.length > maxValueBytes) throw new IllegalArgumentException("Value longer than " + maxValueBytes + " bytes");
+
+        markDirty();
+        if(used + 1 > capacity * MAX_LOAD_FACTOR) increaseCapacity();
+        int existing = findSlot(keyBytes);
+
+        int hash = hash(keyBytes);
+        int slot = hash & (capacity - 1);
+        byte state;
+        while((state = buffer.get(offset(slot) + S_STATE)) == FULL) slot = (slot + 1) & (capacity - 1);
+
+        // Copy on write: the old slot is dropped only once the new one is committed
+        writeSlot(slot, hash, keyBytes, value);
+        if(state == EMPTY) used++;
+        byte[] oldVal = null;
+        if(existing >= 0){
+            oldVal = readValue(existing);
+            buffer.put(offset(existing) + S_STATE, DELETED);
+        } else {
+            size++;
+        }
+        writeCounters();
+        return oldVal;
+    }
+
+    public byte[] remove(String key){
+        if(key == null) throw new IllegalArgumentException("Null key");
+        int slot = findSlot(encode(key));
+        if(slot < 0) return null;
+
+        markDirty();
+        byte[] oldVal = readValue(slot);
+        buffer.put(offset(slot) + S_STATE, DELETED);
+        size--;
+        writeCounters();
+        return oldVal;
+    }
+
+    // Flushes pending writes to disk
+    public void flush(){
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(channel == null) return;
+        if(dirty){
+            buffer.put(H_DIRTY, (byte) 0);
+            dirty = false;
+        }
+        buffer.force();
+        channel.close();
+        channel = null;
+        buffer = null;
+    }
+
+
+    private int findSlot(byte[] keyBytes){
+        int hash = hash(keyBytes);
+        int slot = hash & (capacity - 1);
+
+        for(int probes = 0; probes < capacity; probes++){
+            int base = offset(slot);
+            byte state = buffer.get(base + S_STATE);
+            if(state == EMPTY) return -1;
+            if(state == FULL && buffer.getInt(base + S_HASH) == hash && keyEquals(base, keyBytes)) return slot;
+            slot = (slot + 1) & (capacity - 1);
+        }
+        return -1;
+    }
+
+    private boolean keyEquals(int base, byte[] keyBytes){
+        if(buffer.getShort(base + S_KEY_LEN) != keyBytes.length) return false;
+        for(int i = 0; i < keyBytes.length; i++){
+            if(buffer.get(base + S_KEY + i) != keyBytes[i]) return false;
+        }
+        return true;
+    }
+
+    private byte[] readValue(int slot){
+        int base = offset(slot);
+        byte[] value = new byte[buffer.getInt(base + S_VALUE_LEN)];
+        buffer.get(base + S_KEY + maxKeyBytes, value);
+        return value;
+    }
+
+    // The state byte is written last, it acts as commit marker for the slot
+    private void writeSlot(int slot, int hash, byte[] keyBytes, byte[] value){
+        int base = offset(slot);
+        buffer.putShort(base + S_KEY_LEN, (short) keyBytes.length);
+        buffer.putInt(base + S_HASH, hash);
+        buffer.put(base + S_KEY, keyBytes);
+        buffer.put(base + S_KEY + maxKeyBytes, value);
+        buffer.putInt(base + S_VALUE_LEN, value.length);
+        buffer.put(base + S_STATE, FULL);
+    }
+
+    private void writeCounters(){
+        buffer.putInt(H_SIZE, size);
+        buffer.putInt(H_USED, used);
+    }
+
+    private void markDirty(){
+        if(dirty) return;
+        buffer.put(H_DIRTY, (byte) 1);
+        dirty = true;
+    }
+
+    private int offset(int slot){
+        return HEADER_SIZE + slot * slotSize;
+    }
+
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long length = channel.size();
+        if(length < HEADER_SIZE) throw corrupted("missing header");
+
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if(buffer.getInt(H_MAGIC) != MAGIC) throw corrupted("bad magic number");
+        if(buffer.getInt(H_VERSION) != VERSION) throw corrupted("unsupported version " + buffer.getInt(H_VERSION));
+
+        capacity = buffer.getInt(H_CAPACITY);
+        maxKeyBytes = buffer.getInt(H_MAX_KEY);
+        maxValueBytes = buffer.getInt(H_MAX_VALUE);
+        if(Integer.bitCount(capacity) != 1 || maxKeyBytes <= 0 || maxValueBytes < 0) throw corrupted("bad header");
+
+        slotSize = S_KEY + maxKeyBytes + maxValueBytes;
+        if(length != fileSize(capacity, slotSize)) throw corrupted("expected " + fileSize(capacity, slotSize) + " bytes, found " + length);
+
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        size = buffer.getInt(H_SIZE);
+        used = buffer.getInt(H_USED);
+        dirty = buffer.get(H_DIRTY) != 0;
+
+        // Not closed properly: counters may be stale
+        if(dirty) recount();
+    }
+
+    private IOException corrupted(String reason){
+        if(channel != null){
+            try { channel.close(); } catch (IOException ignored) { }
+            channel = null;
+        }
+        buffer = null;
+        return new IOException("Corrupted or truncated table file " + file + ": " + reason);
+    }
+
+    // Also drops the shadowed copy of a key left by an overwrite interrupted before tombstoning the old slot
+    private void recount(){
+        size = used = 0;
+        for(int slot = 0; slot < capacity; slot++){
+            int base = offset(slot);
+            byte state = buffer.get(base + S_STATE);
+            if(state == FULL){
+                byte[] keyBytes = new byte[buffer.getShort(base + S_KEY_LEN)];
+                buffer.get(base + S_KEY, keyBytes);
+                if(findSlot(keyBytes) == slot) size++;
+                else buffer.put(base + S_STATE, DELETED);
+            }
+            if(state != EMPTY) used++;
+        }
+        writeCounters();
+    }
+
+    // Rehashes live entries into a new file which atomically replaces the current one
+    private void increaseCapacity() throws IOException {
+        // Doubling is not needed when most used slots are tombstones
+        int newCapacity = size + 1 > capacity * MAX_LOAD_FACTOR / 2 ? capacity * 2 : capacity;
+        if(fileSize(newCapacity, slotSize) > Integer.MAX_VALUE) throw new IllegalStateException("Table file would exceed 2GB");
+
+        Path tmp = Paths.get(file.toString() + ".resize");
+        Files.deleteIfExists(tmp);
+        MappedHashTable newTable = create(tmp, newCapacity, maxKeyBytes, maxValueBytes);
+
+        for(int slot = 0; slot < capacity; slot++){
+            int base = offset(slot);
+            if(buffer.get(base + S_STATE) != FULL) continue;
+
+            byte[] keyBytes = new byte[buffer.getShort(base + S_KEY_LEN)];
+            buffer.get(base + S_KEY, keyBytes);
+            int hash = buffer.getInt(base + S_HASH);
+
+            int newSlot = hash & (newCapacity - 1);
+            while(newTable.buffer.get(newTable.offset(newSlot) + S_STATE) != EMPTY) newSlot = (newSlot + 1) & (newCapacity - 1);
+            newTable.writeSlot(newSlot, hash, keyBytes, readValue(slot));
+        }
+        newTable.size = newTable.used = size;
+        newTable.writeCounters();
+        newTable.close();
+
+        channel.close();
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+        open();
+        // We are in the middle of a put
+        markDirty();
+    }
+
+    // Makes the rename durable, otherwise after a power loss the directory may still point to the old file
+    private void syncDirectory() throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if(dir == null) return;
+        try(FileChannel dirChannel = FileChannel.open(dir, StandardOpenOption.READ)){
+            dirChannel.force(true);
+        } catch (AccessDeniedException ignored) {
+            // Directories cannot be opened on some platforms (Windows), where the rename is already durable
+        }
+    }
+
+    private static MappedHashTable create(Path file, int capacity, int maxKeyBytes, int maxValueBytes) throws IOException {
+        int slotSize = S_KEY + maxKeyBytes + maxValueBytes;
+        long length = fileSize(capacity, slotSize);
+        if(length > Integer.MAX_VALUE) throw new IllegalArgumentException("Table file would exceed 2GB");
+
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)){
+            // Mapping past the end of the file extends it, new bytes are zeros thus all slots are EMPTY
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            header.putInt(H_MAGIC, MAGIC);
+            header.putInt(H_VERSION, VERSION);
+            header.putInt(H_CAPACITY, capacity);
+            header.putInt(H_MAX_KEY, maxKeyBytes);
+            header.putInt(H_MAX_VALUE, maxValueBytes);
+            header.force();
+        }
+        return new MappedHashTable(file);
+    }
+
+    private static long fileSize(int capacity, int slotSize){
+        return HEADER_SIZE + (long) capacity * slotSize;
+    }
+
+    private static byte[] encode(String key){
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int hash(byte[] keyBytes){
+        int h = Arrays.hashCode(keyBytes) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
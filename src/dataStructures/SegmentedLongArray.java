@@ -0,0 +1,170 @@
+package dataStructures;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Growable array of long values indexed by long, not bounded by the 2^31 limit of java arrays.
+ *
+ * NOTES:
+ * - Elements are stored in a directory of fixed size chunks of 2^chunkShift elements,
+ *   element i lives in chunk i >>> chunkShift at offset i & (chunkSize-1)
+ * - Growing only allocates a new chunk (and rarely doubles the small directory), existing data is never copied,
+ *   thus unlike DynamicArray.doubleSize() there is no 2x memory peak
+ * - Chunks can live on the java heap, off heap (ByteBuffer.allocateDirect) or in a memory mapped file
+ * - forEach scans chunk by chunk with a plain sequential loop, without the per element index split of get(i)
+ */
+public class SegmentedLongArray implements Closeable {
+
+    private static final int DEFAULT_CHUNK_SHIFT = 20;
+
+    private enum Storage { HEAP, OFF_HEAP, MAPPED }
+
+    private final Storage storage;
+    private final int chunkShift;
+    private final int chunkSize;
+    private final long chunkMask;
+    // Only for MAPPED storage
+    private FileChannel channel;
+
+    private LongBuffer[] chunks = new LongBuffer[8];
+    private int numChunks = 0;
+    private long len = 0;
+
+
+    public SegmentedLongArray(){
+        this(DEFAULT_CHUNK_SHIFT, false);
+    }
+
+    /**
+     * @param chunkShift log2 of the number of elements per chunk
+     * @param offHeap if true chunks are allocated outside of the java heap
+     */
+    public SegmentedLongArray(int chunkShift, boolean offHeap){
+        this(chunkShift, offHeap ? Storage.OFF_HEAP : Storage.HEAP);
+    }
+
+    /**
+     * Chunks are mapped from file, which is created or truncated
+     */
+    public SegmentedLongArray(Path file, int chunkShift) throws IOException {
+        this(chunkShift, Storage.MAPPED);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private SegmentedLongArray(int chunkShift, Storage storage){
+        // Each chunk is addressed by a java int, as bytes for off heap and mapped storage
+        if(chunkShift < 0 || chunkShift > 27) throw new IllegalArgumentException("Illegal chunkShift");
+        this.storage = storage;
+        this.chunkShift = chunkShift;
+        this.chunkSize = 1 << chunkShift;
+        this.chunkMask = chunkSize - 1;
+    }
+
+    public long size(){ return len; }
+    public boolean isEmpty() { return len == 0; }
+
+    public long get(long idx){
+        checkIndex(idx);
+        return chunks[(int) (idx >>> chunkShift)].get((int) (idx & chunkMask));
+    }
+
+    public void set(long idx, long value){
+        checkIndex(idx);
+        chunks[(int) (idx >>> chunkShift)].put((int) (idx & chunkMask), value);
+    }
+
+    public void add(long elem){
+        int chunk = (int) (len >>> chunkShift);
+        if(chunk == numChunks) addChunk();
+        chunks[chunk].put((int) (len & chunkMask), elem);
+        len++;
+    }
+
+    public void addAll(long[] elems){
+        int copied = 0;
+        while(copied < elems.length){
+            int chunk = (int) (len >>> chunkShift);
+            if(chunk == numChunks) addChunk();
+
+            int offset = (int) (len & chunkMask);
+            int count = Math.min(chunkSize - offset, elems.length - copied);
+            LongBuffer dst = chunks[chunk].duplicate();
+            dst.position(offset);
+            dst.put(elems, copied, count);
+
+            copied += count;
+            len += count;
+        }
+    }
+
+    // Sequential scan of all elements in index order
+    public void forEach(LongConsumer action){
+        long remaining = len;
+        for(int c = 0; remaining > 0; c++){
+            LongBuffer chunk = chunks[c];
+            int count = (int) Math.min(chunkSize, remaining);
+            for(int i = 0; i < count; i++) action.accept(chunk.get(i));
+            remaining -= count;
+        }
+    }
+
+    // Keeps allocated chunks for reuse
+    public void clear(){
+        len = 0;
+    }
+
+    /**
+     * Releases chunks, closing the backing file for mapped storage.
+     * Off heap and mapped memory is actually freed once chunks are garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        Arrays.fill(chunks, null);
+        numChunks = 0;
+        len = 0;
+        if(channel != null){
+            channel.close();
+            channel = null;
+        }
+    }
+
+
+    private void checkIndex(long idx){
+        if(idx < 0 || idx >= len) throw new IndexOutOfBoundsException("Index: " + idx + ", size: " + len);
+    }
+
+    private void addChunk(){
+        if(numChunks == chunks.length) chunks = Arrays.copyOf(chunks, numChunks * 2);
+        chunks[numChunks] = allocateChunk(numChunks);
+        numChunks++;
+    }
+
+    private LongBuffer allocateChunk(int chunkIdx){
+        long bytes = (long) chunkSize * Long.BYTES;
+        switch (storage){
+            case OFF_HEAP:
+                return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder()).asLongBuffer();
+            case MAPPED:
+                if(channel == null) throw new IllegalStateException("Array closed");
+                try {
+                    // Mapping past the end of the file extends it
+                    return channel.map(FileChannel.MapMode.READ_WRITE, chunkIdx * bytes, bytes)
+                            .order(ByteOrder.nativeOrder()).asLongBuffer();
+                } catch (IOException e) {
+                    throw new RuntimeException("Unable to map chunk " + chunkIdx, e);
+                }
+            default:
+                return LongBuffer.allocate(chunkSize);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package dataStructures;
+
+import java.util.Arrays;
+
+/**
+ * Unrolled variant of DLList: each node holds a small array of elements instead of a single one.
+ * Compared to one DNode per element it saves most of the per element pointers and headers,
+ * and scans (indexOf, contains, removeAt) walk contiguous arrays jumping between nodes only every nodeCapacity elements.
+ *
+ * NOTES:
+ * - Elements of a node occupy the contiguous range items[start, start+count)
+ * - add/addFirst fill the free room at the back of the tail / front of the head, allocating a node only when it is full:
+ *   deque operations stay O(1)
+ * - Removals in the middle shift elements within a single node, which is then merged with
+ *   its successor when both fit in one node, keeping nodes reasonably dense
+ */
+public class UnrolledDLList<T> {
+
+    private static final int DEFAULT_NODE_CAPACITY = 32;
+
+    private final int nodeCapacity;
+    private UNode head;
+    private UNode tail;
+    private int size = 0;
+
+    public UnrolledDLList(){
+        this(DEFAULT_NODE_CAPACITY);
+    }
+
+    public UnrolledDLList(int nodeCapacity){
+        if(nodeCapacity < 2) throw new IllegalArgumentException("Node capacity must be at least 2");
+        this.nodeCapacity = nodeCapacity;
+    }
+
+    public void clear(){
+        UNode curr = head;
+        while(curr != null){
+            UNode next = curr.next;
+            Arrays.fill(curr.items, null);
+            curr.previous = curr.next = null;
+            curr = next;
+        }
+
+        head = tail = null;
+        size = 0;
+    }
+
+    public int size(){ return size;}
+    public boolean isEmpty() { return size == 0;}
+
+    public void add(T elem){
+        if(tail == null || tail.end() == nodeCapacity) linkLast(new UNode(0));
+        tail.items[tail.end()] = elem;
+        tail.count++;
+        size++;
+    }
+
+    public void addFirst(T elem){
+        if(head == null || head.start == 0) linkFirst(new UNode(nodeCapacity));
+        head.items[--head.start] = elem;
+        head.count++;
+        size++;
+    }
+
+    public T peekFirst(){
+        if(isEmpty()) return null;
+        return head.get(0);
+    }
+
+    public T peekLast(){
+        if(isEmpty()) return null;
+        return tail.get(tail.count - 1);
+    }
+
+    public T removeFirst(){
+        if(isEmpty()) throw new RuntimeException("Empty list!");
+
+        T value = head.get(0);
+        head.items[head.start++] = null;
+        head.count--;
+        size--;
+
+        if(head.count == 0) unlink(head);
+        return value;
+    }
+
+    public T removeLast(){
+        if(isEmpty()) throw new RuntimeException("Empty list!");
+
+        T value = tail.get(tail.count - 1);
+        tail.items[tail.end() - 1] = null;
+        tail.count--;
+        size--;
+
+        if(tail.count == 0) unlink(tail);
+        return value;
+    }
+
+    public T get(int idx){
+        if(idx < 0 || idx >= size) throw new IndexOutOfBoundsException();
+
+        // Walking whole nodes from the closest end
+        if(idx < size/2){
+            UNode trav = head;
+            while(idx >= trav.count){
+                idx -= trav.count;
+                trav = trav.next;
+            }
+            return trav.get(idx);
+        }
+
+        UNode trav = tail;
+        int fromEnd = size - 1 - idx;
+        while(fromEnd >= trav.count){
+            fromEnd -= trav.count;
+            trav = trav.previous;
+        }
+        return trav.get(trav.count - 1 - fromEnd);
+    }
+
+    public T removeAt(int idx){
+        if(idx < 0 || idx >= size) throw new IllegalArgumentException();
+
+        UNode trav = head;
+        while(idx >= trav.count){
+            idx -= trav.count;
+            trav = trav.next;
+        }
+        return remove(trav, idx);
+    }
+
+    public boolean remove(Object elem){
+        for(UNode trav = head; trav != null; trav = trav.next){
+            int offset = trav.indexOf(elem);
+            if(offset >= 0){
+                remove(trav, offset);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int indexOf(Object elem){
+        int base = 0;
+        for(UNode trav = head; trav != null; trav = trav.next){
+            int offset = trav.indexOf(elem);
+            if(offset >= 0) return base + offset;
+            base += trav.count;
+        }
+        return -1;
+    }
+
+    public boolean contains(Object elem){
+        return indexOf(elem) != -1;
+    }
+
+
+    // Removes the element at offset within node
+    private T remove(UNode node, int offset){
+        if(offset == 0 && node == head) return removeFirst();
+        if(offset == node.count - 1 && node == tail) return removeLast();
+
+        T value = node.get(offset);
+        int pos = node.start + offset;
+        System.arraycopy(node.items, pos + 1, node.items, pos, node.end() - pos - 1);
+        node.items[node.end() - 1] = null;
+        node.count--;
+        size--;
+
+        if(node.count == 0) unlink(node);
+        else if(node.next != null && node.count + node.next.count <= nodeCapacity) mergeNext(node);
+        return value;
+    }
+
+    // Moves all elements of node.next into node, then drops node.next
+    private void mergeNext(UNode node){
+        UNode next = node.next;
+
+        if(node.start > 0){
+            System.arraycopy(node.items, node.start, node.items, 0, node.count);
+            Arrays.fill(node.items, node.count, node.end(), null);
+            node.start = 0;
+        }
+        System.arraycopy(next.items, next.start, node.items, node.count, next.count);
+        node.count += next.count;
+
+        unlink(next);
+    }
+
+    private void linkLast(UNode node){
+        if(tail == null){
+            head = tail = node;
+        } else {
+            tail.next = node;
+            node.previous = tail;
+            tail = node;
+        }
+    }
+
+    private void linkFirst(UNode node){
+        if(head == null){
+            head = tail = node;
+        } else {
+            node.next = head;
+            head.previous = node;
+            head = node;
+        }
+    }
+
+    private void unlink(UNode node){
+        if(node.previous == null) head = node.next;
+        else node.previous.next = node.next;
+
+        if(node.next == null) tail = node.previous;
+        else node.next.previous = node.previous;
+
+        node.previous = node.next = null;
+    }
+
+
+    private class UNode {
+        private UNode next;
+        private UNode previous;
+        private final Object[] items = new Object[nodeCapacity];
+        private int start;
+        private int count = 0;
+
+        public UNode(int start){ this.start = start; }
+
+        public int end(){ return start + count; }
+
+        public T get(int offset){ return (T) items[start + offset]; }
+
+        public int indexOf(Object elem){
+            for(int i = start; i < start + count; i++){
+                if(elem == null ? items[i] == null : elem.equals(items[i])) return i - start;
+            }
+            return -1;
+        }
+    }
+
+}
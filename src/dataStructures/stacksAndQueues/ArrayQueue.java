@@ -0,0 +1,109 @@
+package dataStructures.stacksAndQueues;
+
+import java.util.Arrays;
+
+/**
+ * Queue backed by a circular buffer rather than by DLList: elements are stored contiguously
+ * and no node is allocated per enqueue.
+ *
+ * NOTES:
+ * - Capacity is always a power of two so that positions wrap with & mask instead of %
+ * - head is the index of the first element, tail the index of the next free slot
+ * - Unbounded queues double the buffer when full (amortized O(1) enqueue),
+ *   bounded ones reject elements beyond the capacity given by the caller, even if the buffer is larger
+ */
+public class ArrayQueue<T> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private T[] data;
+    private int mask;
+    private int head = 0, tail = 0, size = 0;
+    // Max number of elements, Integer.MAX_VALUE for unbounded queues
+    private final int limit;
+
+    public ArrayQueue(){
+        this(DEFAULT_CAPACITY, false);
+    }
+
+    /**
+     * @param capacity initial capacity, the buffer is rounded up to a power of two
+     * @param bounded if true the queue never holds more than capacity elements
+     */
+    public ArrayQueue(int capacity, boolean bounded){
+        if(capacity <= 0 || capacity > 1 << 30) throw new IllegalArgumentException("Illegal capacity");
+        int cap = Integer.highestOneBit(capacity);
+        if(cap < capacity) cap <<= 1;
+
+        this.data = (T[]) new Object[cap];
+        this.mask = cap - 1;
+        this.limit = bounded ? capacity : Integer.MAX_VALUE;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public boolean isFull(){
+        return size == limit;
+    }
+
+    // Max number of elements of a bounded queue, current buffer size of an unbounded one
+    public int capacity(){
+        return Math.min(limit, data.length);
+    }
+
+    public void enqueue(T element){
+        if(!offer(element)) throw new IllegalStateException("Full queue!");
+    }
+
+    // Same as enqueue but returns false instead of throwing when a bounded queue is full
+    public boolean offer(T element){
+        if(size == limit) return false;
+        if(size == data.length) grow();
+
+        data[tail] = element;
+        tail = (tail + 1) & mask;
+        size++;
+        return true;
+    }
+
+    public T dequeue(){
+        if(isEmpty()) throw new RuntimeException("Empty queue!");
+
+        T element = data[head];
+        data[head] = null;
+        head = (head + 1) & mask;
+        size--;
+        return element;
+    }
+
+    public T peek(){
+        if(isEmpty()) return null;
+        return data[head];
+    }
+
+    public void clear(){
+        Arrays.fill(data, null);
+        head = tail = size = 0;
+    }
+
+    // Unrolls the circular buffer at the beginning of a buffer twice as big
+    private void grow(){
+        if(data.length == 1 << 30) throw new IllegalStateException("Queue too big");
+        T[] newData = (T[]) new Object[data.length * 2];
+
+        int firstPart = data.length - head;
+        System.arraycopy(data, head, newData, 0, firstPart);
+        System.arraycopy(data, 0, newData, firstPart, head);
+
+        head = 0;
+        tail = size;
+        data = newData;
+        mask = newData.length - 1;
+    }
+}
@@ -0,0 +1,70 @@
+package dataStructures.stacksAndQueues;
+
+import java.util.Arrays;
+
+/**
+ * Stack backed by an array rather than by DLList: push and pop just move the top index.
+ * Unbounded stacks double the array when full (amortized O(1) push), bounded ones reject elements beyond capacity.
+ */
+public class ArrayStack<T> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private T[] data;
+    // Number of elements, data[size-1] is the top
+    private int size = 0;
+    private final boolean bounded;
+
+    public ArrayStack(){
+        this(DEFAULT_CAPACITY, false);
+    }
+
+    /**
+     * @param capacity initial capacity
+     * @param bounded if true the stack never grows beyond capacity
+     */
+    public ArrayStack(int capacity, boolean bounded){
+        if(capacity <= 0 || capacity > 1 << 30) throw new IllegalArgumentException("Illegal capacity");
+
+        this.data = (T[]) new Object[capacity];
+        this.bounded = bounded;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public boolean isFull(){
+        return bounded && size == data.length;
+    }
+
+    public void push(T elem){
+        if(size == data.length){
+            if(bounded) throw new IllegalStateException("Full stack!");
+            if(data.length == 1 << 30) throw new IllegalStateException("Stack too big");
+            data = Arrays.copyOf(data, Math.min(1 << 30, data.length * 2));
+        }
+        data[size++] = elem;
+    }
+
+    public T pop(){
+        if(isEmpty()) throw new RuntimeException("Empty stack!");
+        T elem = data[--size];
+        data[size] = null;
+        return elem;
+    }
+
+    public T peek(){
+        if(isEmpty()) return null;
+        return data[size - 1];
+    }
+
+    public void clear(){
+        Arrays.fill(data, 0, size, null);
+        size = 0;
+    }
+}
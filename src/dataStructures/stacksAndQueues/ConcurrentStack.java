@@ -0,0 +1,104 @@
+package dataStructures.stacksAndQueues;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock free stack which can be shared among threads, with the same push/pop/isEmpty API of Stack.
+ *
+ * NOTES:
+ * - Treiber stack: a singly linked list whose top is swapped with a CAS, a push/pop retries when another thread won the race
+ * - Under contention every thread keeps failing CAS on the same top reference, optionally a failed operation
+ *   backs off on an elimination array instead: a push parks its node in a random slot for a short while,
+ *   a pop visiting that slot takes the node and both return without touching the stack at all.
+ *   A push and a pop which overlap in time can always be ordered as push-then-pop, thus the pair is linearizable
+ */
+public class ConcurrentStack<T> {
+
+    private static final int ELIMINATION_SPINS = 64;
+
+    private static final class Node<T> {
+        final T value;
+        Node<T> next;
+
+        Node(T value){ this.value = value; }
+    }
+
+    private final AtomicReference<Node<T>> top = new AtomicReference<>();
+    // null when elimination is disabled
+    private final AtomicReferenceArray<Node<T>> elimination;
+
+    public ConcurrentStack(){
+        this(0);
+    }
+
+    /**
+     * @param eliminationSlots size of the elimination array, 0 disables it.
+     *                         About half the number of contending threads is a reasonable choice
+     */
+    public ConcurrentStack(int eliminationSlots){
+        if(eliminationSlots < 0) throw new IllegalArgumentException("Illegal eliminationSlots");
+        elimination = eliminationSlots == 0 ? null : new AtomicReferenceArray<>(eliminationSlots);
+    }
+
+    public boolean isEmpty(){
+        return top.get() == null;
+    }
+
+    public void push(T elem){
+        Node<T> node = new Node<>(elem);
+        while(true){
+            Node<T> curTop = top.get();
+            node.next = curTop;
+            if(top.compareAndSet(curTop, node)) return;
+            if(elimination != null && eliminatePush(node)) return;
+        }
+    }
+
+    public T pop(){
+        Node<T> node = popNode();
+        if(node == null) throw new RuntimeException("Empty stack!");
+        return node.value;
+    }
+
+    // Same as pop but returns null on an empty stack, since with many threads isEmpty() may be stale right away
+    public T tryPop(){
+        Node<T> node = popNode();
+        return node == null ? null : node.value;
+    }
+
+    private Node<T> popNode(){
+        while(true){
+            Node<T> curTop = top.get();
+            if(curTop == null) return null;
+            if(top.compareAndSet(curTop, curTop.next)) return curTop;
+
+            if(elimination != null){
+                Node<T> node = eliminatePop();
+                if(node != null) return node;
+            }
+        }
+    }
+
+    // Parks node in a random free slot waiting for a pop, true if a pop took it
+    private boolean eliminatePush(Node<T> node){
+        int slot = ThreadLocalRandom.current().nextInt(elimination.length());
+        if(!elimination.compareAndSet(slot, null, node)) return false;
+
+        for(int i = 0; i < ELIMINATION_SPINS; i++){
+            if(elimination.get(slot) != node) return true;
+            Thread.onSpinWait();
+        }
+        // Timeout: if we cannot take the node back a pop has just taken it
+        return !elimination.compareAndSet(slot, node, null);
+    }
+
+    // Takes the node parked by a push in a random slot, if any
+    private Node<T> eliminatePop(){
+        int slot = ThreadLocalRandom.current().nextInt(elimination.length());
+        Node<T> node = elimination.get(slot);
+        if(node != null && elimination.compareAndSet(slot, node, null)) return node;
+        return null;
+    }
+}
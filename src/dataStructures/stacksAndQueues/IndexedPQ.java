@@ -1,9 +1,176 @@
 package dataStructures.stacksAndQueues;
 
+import java.util.Arrays;
+
+/**
+ * Indexed min priority queue: each element is identified by a key index in 0..maxSize-1 and carries an int value,
+ * the element with the smallest value is on top.
+ * Unlike PQueue the value of an element already in the queue can be changed in O(log n),
+ * so algorithms like Dijkstra or Prim keep at most one entry per vertex instead of pushing duplicates.
+ *
+ * NOTES:
+ * - Everything lives in three int arrays allocated once in the constructor, no operation allocates
+ * - values[ki] = value of key index ki
+ * - pm[ki] = position of ki in the heap (-1 if not in the queue), im[pos] = key index at heap position pos,
+ *   thus pm[im[i]] = im[pm[i]] = i
+ */
 public class IndexedPQ {
-    private static String hello;
 
-    public IndexedPQ(){
-        hello = null;
+    private final int maxSize;
+    private int size = 0;
+
+    private final int[] values;
+    // Position map
+    private final int[] pm;
+    // Inverse map
+    private final int[] im;
+
+    public IndexedPQ(int maxSize){
+        if(maxSize <= 0) throw new IllegalArgumentException("maxSize must be greater than 0");
+        this.maxSize = maxSize;
+        values = new int[maxSize];
+        pm = new int[maxSize];
+        im = new int[maxSize];
+        Arrays.fill(pm, -1);
+    }
+
+    public int size(){ return size; }
+    public boolean isEmpty(){ return size == 0; }
+
+    public boolean contains(int ki){
+        checkKeyIndex(ki);
+        return pm[ki] != -1;
+    }
+
+    public void insert(int ki, int value){
+        if(contains(ki)) throw new IllegalArgumentException("Key index already in queue: " + ki);
+        pm[ki] = size;
+        im[size] = ki;
+        values[ki] = value;
+        boubleUpFor(size++);
+    }
+
+    public int valueOf(int ki){
+        checkContained(ki);
+        return values[ki];
+    }
+
+    public int peekMinIndex(){
+        checkNotEmpty();
+        return im[0];
+    }
+
+    public int peekMinValue(){
+        checkNotEmpty();
+        return values[im[0]];
+    }
+
+    public int pollMinIndex(){
+        int minKi = peekMinIndex();
+        removeAt(0);
+        return minKi;
+    }
+
+    // Removes ki from the queue returning its value
+    public int delete(int ki){
+        checkContained(ki);
+        int value = values[ki];
+        removeAt(pm[ki]);
+        return value;
+    }
+
+    // Sets a new value for ki, which can move up or down
+    public void update(int ki, int value){
+        checkContained(ki);
+        int old = values[ki];
+        values[ki] = value;
+        if(value < old) boubleUpFor(pm[ki]);
+        else boubleDownFor(pm[ki]);
+    }
+
+    // Only lowers the value of ki, a greater value is an error
+    public void decreaseKey(int ki, int value){
+        checkContained(ki);
+        if(value > values[ki]) throw new IllegalArgumentException("New value is greater than the current one");
+        values[ki] = value;
+        boubleUpFor(pm[ki]);
+    }
+
+    // Only raises the value of ki, a smaller value is an error
+    public void increaseKey(int ki, int value){
+        checkContained(ki);
+        if(value < values[ki]) throw new IllegalArgumentException("New value is smaller than the current one");
+        values[ki] = value;
+        boubleDownFor(pm[ki]);
+    }
+
+    public void clear(){
+        for(int i = 0; i < size; i++) pm[im[i]] = -1;
+        size = 0;
+    }
+
+
+    private void removeAt(int pos){
+        int removedKi = im[pos];
+        int lastPos = --size;
+
+        if(pos != lastPos){
+            // Moving the last element in place of the removed one, then restoring the heap invariant
+            int movedKi = im[lastPos];
+            setPosition(movedKi, pos);
+            boubleUpFor(pos);
+            // Nothing moved up, the element coming from the bottom may need to go down instead
+            if(pm[movedKi] == pos) boubleDownFor(pos);
+        }
+        pm[removedKi] = -1;
+    }
+
+    // The element is kept aside while smaller parents are moved down, then written once in its final slot
+    private void boubleUpFor(int pos){
+        int ki = im[pos];
+        int value = values[ki];
+
+        while(pos > 0){
+            int parentPos = (pos - 1) >> 1;
+            if(values[im[parentPos]] <= value) break;
+            setPosition(im[parentPos], pos);
+            pos = parentPos;
+        }
+        setPosition(ki, pos);
+    }
+
+    private void boubleDownFor(int pos){
+        int ki = im[pos];
+        int value = values[ki];
+
+        while(true){
+            int left = 2*pos + 1;
+            if(left >= size) break;
+            int smallest = left;
+            int right = left + 1;
+            if(right < size && values[im[right]] < values[im[left]]) smallest = right;
+
+            if(value <= values[im[smallest]]) break;
+            setPosition(im[smallest], pos);
+            pos = smallest;
+        }
+        setPosition(ki, pos);
+    }
+
+    private void setPosition(int ki, int pos){
+        im[pos] = ki;
+        pm[ki] = pos;
+    }
+
+    private void checkKeyIndex(int ki){
+        if(ki < 0 || ki >= maxSize) throw new IllegalArgumentException("Key index out of bounds: " + ki);
+    }
+
+    private void checkContained(int ki){
+        if(!contains(ki)) throw new IllegalArgumentException("Key index not in queue: " + ki);
+    }
+
+    private void checkNotEmpty(){
+        if(isEmpty()) throw new RuntimeException("Empty queue!");
     }
 }
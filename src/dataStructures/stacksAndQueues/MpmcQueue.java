@@ -0,0 +1,128 @@
+package dataStructures.stacksAndQueues;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock free queue for any number of producer and consumer threads (Vyukov's array queue).
+ *
+ * NOTES:
+ * - Each slot i has a sequence number, initially i:
+ *      sequence == pos         the slot is free for the producer claiming position pos
+ *      sequence == pos + 1     the slot holds the element of position pos, ready for the consumer claiming it
+ *   after a dequeue the consumer sets it to pos + capacity, freeing the slot for the next lap
+ * - Producers claim positions with a CAS on tail, consumers with a CAS on head: the only contention is among
+ *   threads of the same side, the slot handoff itself is a release store of its sequence
+ * - Slots are freed out of order by concurrent consumers, thus offerBatch/drainTo simply loop over single operations
+ */
+public class MpmcQueue<T> {
+
+    private final T[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final PaddedSequence head = new PaddedSequence();
+    private final PaddedSequence tail = new PaddedSequence();
+
+    /**
+     * @param capacity rounded up to a power of two, at least 2
+     */
+    public MpmcQueue(int capacity){
+        if(capacity <= 0 || capacity > 1 << 30) throw new IllegalArgumentException("Illegal capacity");
+        int cap = Math.max(2, Integer.highestOneBit(capacity));
+        if(cap < capacity) cap <<= 1;
+
+        buffer = (T[]) new Object[cap];
+        sequences = new AtomicLongArray(cap);
+        for(int i = 0; i < cap; i++) sequences.set(i, i);
+        mask = cap - 1;
+    }
+
+    // Approximated while producers and consumers are running
+    public int size(){
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, buffer.length));
+    }
+
+    public boolean isEmpty(){
+        return size() == 0;
+    }
+
+    public int capacity(){
+        return buffer.length;
+    }
+
+    // false if the queue is full
+    public boolean offer(T elem){
+        if(elem == null) throw new IllegalArgumentException("Null element");
+
+        long pos = tail.get();
+        while(true){
+            int idx = (int) pos & mask;
+            long dif = sequences.get(idx) - pos;
+
+            if(dif == 0){
+                if(tail.compareAndSet(pos, pos + 1)){
+                    buffer[idx] = elem;
+                    sequences.lazySet(idx, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            }
+            // The slot still holds the element of the previous lap
+            else if(dif < 0) return false;
+            // Another producer claimed pos
+            else pos = tail.get();
+        }
+    }
+
+    // null if the queue is empty
+    public T poll(){
+        long pos = head.get();
+        while(true){
+            int idx = (int) pos & mask;
+            long dif = sequences.get(idx) - (pos + 1);
+
+            if(dif == 0){
+                if(head.compareAndSet(pos, pos + 1)){
+                    T elem = buffer[idx];
+                    buffer[idx] = null;
+                    sequences.lazySet(idx, pos + buffer.length);
+                    return elem;
+                }
+                pos = head.get();
+            }
+            // The producer of pos has not published yet
+            else if(dif < 0) return null;
+            // Another consumer claimed pos
+            else pos = head.get();
+        }
+    }
+
+    /**
+     * Offers elems[from, from+count) until the queue is full
+     * @return the number of elements actually enqueued
+     */
+    public int offerBatch(T[] elems, int from, int count){
+        int n = 0;
+        while(n < count && offer(elems[from + n])) n++;
+        return n;
+    }
+
+    /**
+     * @return the number of elements handed to consumer, at most limit
+     */
+    public int drainTo(Consumer<? super T> consumer, int limit){
+        int n = 0;
+        T elem;
+        while(n < limit && (elem = poll()) != null){
+            consumer.accept(elem);
+            n++;
+        }
+        return n;
+    }
+
+    public int drainTo(Collection<? super T> out, int limit){
+        return drainTo(out::add, limit);
+    }
+}
@@ -0,0 +1,146 @@
+package dataStructures.stacksAndQueues;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread safe relaxed min priority queue (MultiQueue): elements are spread over several PQueue shards,
+ * each one with its own lock, so concurrent add and poll calls rarely contend on the same heap.
+ *
+ * NOTES:
+ * - add pushes into a random shard whose lock is free (tryLock), without waiting on a busy one.
+ *   After as many failed attempts as there are shards (e.g. always busy with a single shard) it blocks on a random shard
+ *   instead of spinning
+ * - poll reads the cached minimum of two random shards without locking and polls the smaller one:
+ *   the result is not necessarily the global minimum, but an element close to it.
+ *   The expected rank of the returned element grows with the number of shards, which is the relaxation knob:
+ *   with a single shard the queue is exact (and fully serialized)
+ * - If random attempts keep finding empty or busy shards, poll sweeps all shards in order taking their locks,
+ *   returning null only when none of them holds an element
+ * - size/isEmpty sum the shard counters, exact only when no writer is running
+ * @param <T>
+ */
+public class MultiQueue<T extends Comparable<T>> {
+
+    // Shards per expected thread
+    private static final int DEFAULT_SHARDS_PER_THREAD = 2;
+
+    private final Shard<T>[] shards;
+
+    public MultiQueue(){
+        this(DEFAULT_SHARDS_PER_THREAD * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param numShards number of underlying heaps, usually a small multiple of the number of threads:
+     *                  more shards means less contention but a more relaxed ordering
+     */
+    public MultiQueue(int numShards){
+        if(numShards <= 0) throw new IllegalArgumentException("Illegal number of shards");
+
+        @SuppressWarnings("unchecked")
+        Shard<T>[] newShards = (Shard<T>[]) new Shard<?>[numShards];
+        for(int i = 0; i < numShards; i++) newShards[i] = new Shard<>();
+        shards = newShards;
+    }
+
+    public int size(){
+        long size = 0;
+        for(Shard<T> shard : shards) size += shard.count;
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    public boolean isEmpty(){
+        for(Shard<T> shard : shards) if(shard.count != 0) return false;
+        return true;
+    }
+
+    public void add(T elem){
+        if(elem == null) throw new RuntimeException("Attempting to add null element!");
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Shard<T> shard = null;
+        for(int attempt = 0; attempt < shards.length && shard == null; attempt++){
+            Shard<T> candidate = shards[random.nextInt(shards.length)];
+            if(candidate.lock.tryLock()) shard = candidate;
+        }
+        if(shard == null){
+            shard = shards[random.nextInt(shards.length)];
+            shard.lock.lock();
+        }
+
+        try {
+            shard.heap.add(elem);
+            shard.published();
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // Returns an element close to the minimum, null if the queue is empty
+    public T poll(){
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for(int attempt = 0; attempt < shards.length; attempt++){
+            Shard<T> a = shards[random.nextInt(shards.length)];
+            Shard<T> b = shards[random.nextInt(shards.length)];
+            T aTop = a.top, bTop = b.top;
+            if(aTop == null && bTop == null) continue;
+
+            Shard<T> best = bTop == null || (aTop != null && aTop.compareTo(bTop) <= 0) ? a : b;
+            if(!best.lock.tryLock()) continue;
+            try {
+                T elem = best.heap.poll();
+                if(elem != null){
+                    best.published();
+                    return elem;
+                }
+            } finally {
+                best.lock.unlock();
+            }
+        }
+
+        // Fallback sweep: either the queue is (almost) empty or shards kept being busy
+        for(Shard<T> shard : shards){
+            shard.lock.lock();
+            try {
+                T elem = shard.heap.poll();
+                if(elem != null){
+                    shard.published();
+                    return elem;
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return null;
+    }
+
+    // Cached minimum of a random pair of shards, like poll it is an approximation of the global minimum
+    public T peek(){
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        T aTop = shards[random.nextInt(shards.length)].top;
+        T bTop = shards[random.nextInt(shards.length)].top;
+        if(aTop != null && (bTop == null || aTop.compareTo(bTop) <= 0)) return aTop;
+        if(bTop != null) return bTop;
+
+        for(Shard<T> shard : shards) if(shard.top != null) return shard.top;
+        return null;
+    }
+
+
+    private static final class Shard<T extends Comparable<T>> {
+        private final ReentrantLock lock = new ReentrantLock();
+        // Modified only holding the lock
+        private final PQueue<T> heap = new PQueue<>(16, 4);
+        // Snapshot of heap.peek() and heap.size() read by other threads without locking
+        private volatile T top;
+        private volatile int count;
+
+        // Publishes the state of the heap after a change, to be called holding the lock
+        private void published(){
+            top = heap.peek();
+            count = heap.size();
+        }
+    }
+}
@@ -2,39 +2,80 @@ package dataStructures.stacksAndQueues;
 
 import java.util.*;
 
+/**
+ * Min priority queue backed by a d-ary heap, binary by default.
+ *
+ * NOTES:
+ * - The arity must be a power of two, so parent and children indices are computed with shifts only:
+ *   parent(i) = (i-1) >> log2(d), firstChild(i) = (i << log2(d)) + 1
+ * - Wider heaps are shallower, log_d(n) levels: sift up (add, decreasing values) does fewer steps
+ *   while each sift down step (poll) compares up to d children, which sit next to each other in the array
+ */
 public class PQueue<T extends Comparable<T>> {
+
+    private static final int DEFAULT_ARITY = 2;
+
+    // log2 of the heap arity
+    private final int arityShift;
+
+    // Position tracker of a heap element: it keeps the current heap index of the element (intrusive index)
+    // and links the other nodes holding an equal value
+    private static final class Node<T> {
+        final T value;
+        int index;
+        Node<T> prevSame, nextSame;
+
+        Node(T value, int index){
+            this.value = value;
+            this.index = index;
+        }
+    }
+
     // elements inside the heap
     private int heapSize = 0;
-    // Internal heap capacity
-    private int heapCapacity = 0;
 
-    // Dynamic list to track elements within the heap
-    private List<T> heap = null;
+    // Heap array, its length is the internal heap capacity
+    private T[] heap;
 
-    // Map keeping track for each element value the set of indices
-    // where it can be found within the heap
-    // Enables O(logN) removals and O(1) contains checks
-    private Map<T, TreeSet<Integer>> sup = new HashMap<>();
+    // nodes[i] tracks heap[i]: moving an element within the heap just updates its node index
+    private Node<T>[] nodes = null;
+
+    // Map keeping track for each element value of the chain of nodes holding it.
+    // Enables O(logN) removals and O(1) contains checks, sift up/down never touch it:
+    // the map is updated once per add and once per removal.
+    // Map and nodes are built lazily on the first contains/remove, so queues used only through add/poll
+    // are plain heaps which never pay for them
+    private Map<T, Node<T>> sup = null;
 
     public PQueue(){
         this(1);
     }
     public PQueue(int heapSize) {
-        heap = new ArrayList<T>(heapSize);
+        this(heapSize, DEFAULT_ARITY);
+    }
+    public PQueue(int heapSize, int arity) {
+        arityShift = arityShift(arity);
+        heap = (T[]) new Comparable[Math.max(1, heapSize)];
     }
 
     // Construct a priority queue using heapify in O(n) time, a great explanation can be found at:
     // http://www.cs.umd.edu/~meesh/351/mount/lectures/lect14-heapsort-analysis-part.pdf
     public PQueue(T[] elems) {
+        this(elems, DEFAULT_ARITY);
+    }
+    public PQueue(T[] elems, int arity) {
 
-        heapSize = heapCapacity = elems.length;
-        heap = new ArrayList<T>(heapCapacity);
+        arityShift = arityShift(arity);
+        heapSize = elems.length;
+        heap = (T[]) new Comparable[Math.max(1, heapSize)];
 
         // Place all element in heap
-        for (int i = 0; i < heapSize; i++) heap.add(elems[i]);
+        for (int i = 0; i < heapSize; i++) {
+            if(elems[i] == null) throw new RuntimeException("Attempting to add null element!");
+            heap[i] = elems[i];
+        }
 
-        // Heapify process, O(n)
-        for (int i = Math.max(0, (heapSize / 2) - 1); i >= 0; i--) boubleDownFor(i);
+        heapify();
     }
 
     public boolean isEmpty(){
@@ -47,7 +88,7 @@ public class PQueue<T extends Comparable<T>> {
 
     public T peek(){
         if(isEmpty()) return null;
-        return heap.get(0);
+        return heap[0];
     }
 
     public T poll(){
@@ -56,36 +97,113 @@ public class PQueue<T extends Comparable<T>> {
 
     public boolean contains(T elem){
         if(elem == null) return false;
-        return sup.containsKey(elem);
+        return sup().containsKey(elem);
     }
 
     public void add(T elem){
         if(elem == null) throw new RuntimeException("Attempting to add null element!");
 
-        if(heapSize < heapCapacity){
-            heap.set(heapSize, elem);
-        }else{
-            heap.add(elem);
-            heapCapacity++;
+        if(heapSize == heap.length){
+            heap = Arrays.copyOf(heap, heap.length * 2);
+            if(nodes != null) nodes = Arrays.copyOf(nodes, heap.length);
         }
 
         int newElemIdx = heapSize;
+        heap[newElemIdx] = elem;
         heapSize++;
 
-        addToSup(elem, newElemIdx);
+        if(sup != null){
+            nodes[newElemIdx] = new Node<>(elem, newElemIdx);
+            addToSup(nodes[newElemIdx]);
+        }
         boubleUpFor(newElemIdx);
 
     }
 
 
+    /**
+     * Adds all elems: small batches are added one by one, O(k*log(n+k)), while batches large with respect
+     * to the heap are appended and the whole heap is rebuilt with heapify, O(n+k)
+     */
+    public void addAll(Collection<? extends T> elems){
+        for(T elem : elems) if(elem == null) throw new RuntimeException("Attempting to add null element!");
+
+        int batch = elems.size();
+        int total = heapSize + batch;
+        if(batch == 0) return;
+        if(total < 0) throw new IllegalStateException("Heap too large");
+
+        if(total > heap.length){
+            heap = Arrays.copyOf(heap, Math.max(total, heap.length * 2));
+            if(nodes != null) nodes = Arrays.copyOf(nodes, heap.length);
+        }
+
+        // Rebuilding pays off once k*log(n+k) exceeds n+k
+        int log = 32 - Integer.numberOfLeadingZeros(total);
+        if((long) batch * log < total){
+            for(T elem : elems) add(elem);
+            return;
+        }
+
+        for(T elem : elems){
+            heap[heapSize] = elem;
+            if(sup != null){
+                nodes[heapSize] = new Node<>(elem, heapSize);
+                addToSup(nodes[heapSize]);
+            }
+            heapSize++;
+        }
+        heapify();
+    }
+
+    /**
+     * Polls up to k elements writing them in ascending order into out, returns the number of polled elements
+     */
+    public int pollBatch(int k, T[] out){
+        if(k < 0 || k > out.length) throw new IllegalArgumentException("Illegal batch size " + k);
+
+        int polled = 0;
+        while(polled < k && !isEmpty()) out[polled++] = removeAt(0);
+        return polled;
+    }
+
+    /**
+     * Empties the queue writing all its elements in ascending order into out, returns their number.
+     * Elements are sorted in place within the heap array (heapsort), nothing is allocated
+     */
+    public int drainSorted(T[] out){
+        int n = heapSize;
+        if(out.length < n) throw new IllegalArgumentException("Output array too small: " + out.length + " < " + n);
+
+        // The value index is not maintained while sorting, it will be rebuilt lazily if needed
+        sup = null;
+        nodes = null;
+
+        // Each step moves the min right after the shrinking heap, leaving heap[0, n) in descending order
+        for(int last = n - 1; last > 0; last--){
+            T min = heap[0];
+            heap[0] = heap[last];
+            heapSize = last;
+            boubleDownFor(0);
+            heap[last] = min;
+        }
+
+        for(int i = 0; i < n; i++){
+            out[i] = heap[n - 1 - i];
+        }
+        Arrays.fill(heap, 0, n, null);
+        heapSize = 0;
+        return n;
+    }
+
     public boolean remove(T elem){
         if(elem == null) throw new IllegalArgumentException();
 
-        if(!contains(elem)) return false;
+        Node<T> node = sup().get(elem);
+        if(node == null) return false;
 
-        Integer elIdx = sup.get(elem).first();
-        if(elIdx != null) removeAt(elIdx);
-        return elIdx != null;
+        removeAt(node.index);
+        return true;
 
     }
 
@@ -93,101 +211,135 @@ public class PQueue<T extends Comparable<T>> {
     private T removeAt(int idx){
         if(isEmpty()) return null;
 
-        // Swapping last element with the one to be removed
-        int lastElementIdx = heapSize -1;
-        swapElements(lastElementIdx, idx);
+        T removedElem = heap[idx];
+        if(sup != null) removeFromSup(nodes[idx]);
 
-        T removedElem = heap.get(lastElementIdx);
-        heap.set(lastElementIdx, null);
-        sup.get(removedElem).remove(lastElementIdx);
+        // Moving the last element in place of the removed one
+        int lastElementIdx = heapSize -1;
         heapSize--;
+        if(idx != lastElementIdx) move(lastElementIdx, idx);
+        heap[lastElementIdx] = null;
+        if(nodes != null) nodes[lastElementIdx] = null;
+
+        if(idx < heapSize){
+            T moved = heap[idx];
+            boubleDownFor(idx);
+            // Nothing moved down, the element coming from the bottom may need to go up instead
+            if(heap[idx] == moved) boubleUpFor(idx);
+        }
 
-        boubleDownFor(idx);
+        return removedElem;
 
-        if(less(idx, getParentIdx(idx))) boubleUpFor(idx);
+    }
 
-        return removedElem;
 
+    // Heapify process, O(n)
+    private void heapify(){
+        for (int i = heapSize > 1 ? getParentIdx(heapSize - 1) : -1; i >= 0; i--) boubleDownFor(i);
     }
 
+    private Map<T, Node<T>> sup(){
+        if(sup == null){
+            sup = new HashMap<>(Math.max(16, heapSize * 2));
+            nodes = new Node[heap.length];
+            for(int i = 0; i < heapSize; i++){
+                nodes[i] = new Node<>(heap[i], i);
+                addToSup(nodes[i]);
+            }
+        }
+        return sup;
+    }
 
-    private void addToSup(T elem, int newElemIdx){
-        if(sup.containsKey(elem)){
-            sup.get(elem).add(newElemIdx);
-        }else{
-            TreeSet<Integer> set =new TreeSet<>();
-            set.add(newElemIdx);
-            sup.put(elem, set);
+    // The new node becomes the head of the chain of its value
+    private void addToSup(Node<T> node){
+        Node<T> head = sup.put(node.value, node);
+        if(head != null){
+            node.nextSame = head;
+            head.prevSame = node;
         }
     }
 
+    private void removeFromSup(Node<T> node){
+        if(node.prevSame != null) node.prevSame.nextSame = node.nextSame;
+        else if(node.nextSame != null) sup.put(node.value, node.nextSame);
+        else sup.remove(node.value);
+
+        if(node.nextSame != null) node.nextSame.prevSame = node.prevSame;
+        node.prevSame = node.nextSame = null;
+    }
+
+    // Rather than swapping at each step, parents are moved down into the hole left by the element
+    // which is written only once at its final position
     private void boubleUpFor(int idx){
 
-        int newElementIdx = idx;
-        for(Integer parentIdx = getParentIdx(newElementIdx);
-            // Heap invariant constraint parent < child -- MIN HEAP
-            parentIdx != null &&  less(newElementIdx, parentIdx);
-            parentIdx = getParentIdx(newElementIdx)){
+        T elem = heap[idx];
+        Node<T> node = nodes == null ? null : nodes[idx];
+
+        // Heap invariant constraint parent < child -- MIN HEAP
+        while(idx > 0){
+            int parentIdx = getParentIdx(idx);
+            if(heap[parentIdx].compareTo(elem) <= 0) break;
 
-            swapElements(parentIdx, newElementIdx);
-            newElementIdx = parentIdx;
+            move(parentIdx, idx);
+            idx = parentIdx;
         }
+        place(elem, node, idx);
     }
 
     private void boubleDownFor(int idx){
 
-        while(true){
-            int left = 2*idx +1;
-            int right = 2*idx +2;
-            int smallest = left;
+        T elem = heap[idx];
+        Node<T> node = nodes == null ? null : nodes[idx];
+        // Parent of the last element: the indices past it are leaves. Checked before shifting,
+        // since the first child index of a leaf may overflow an int on a large heap
+        int lastParent = heapSize > 1 ? getParentIdx(heapSize - 1) : -1;
+
+        while(idx <= lastParent){
+            int firstChild = getFirstChildIdx(idx);
+            int lastChild = firstChild + Math.min(1 << arityShift, heapSize - firstChild);
+            int smallest = firstChild;
 
             // Search for the smallest child node
-            if(right < heapSize && less(right, left)) smallest = right;
+            for(int child = firstChild + 1; child < lastChild; child++)
+                if(heap[child].compareTo(heap[smallest]) < 0) smallest = child;
 
-            if(left >= heapSize || less(idx, smallest)) break;
+            if(elem.compareTo(heap[smallest]) <= 0) break;
 
-            swapElements(idx, smallest);
+            move(smallest, idx);
             idx = smallest;
         }
+        place(elem, node, idx);
 
     }
 
-    private boolean less(int aIdx, int bIdx){
-        T aElem = heap.get(aIdx);
-        T bElem = heap.get(bIdx);
-
-        return aElem.compareTo(bElem) <= 0;
+    private void move(int fromIdx, int toIdx){
+        heap[toIdx] = heap[fromIdx];
+        if(nodes != null){
+            nodes[toIdx] = nodes[fromIdx];
+            nodes[toIdx].index = toIdx;
+        }
     }
 
+    private void place(T elem, Node<T> node, int idx){
+        heap[idx] = elem;
+        if(node != null){
+            nodes[idx] = node;
+            node.index = idx;
+        }
+    }
 
-    private void swapElements(int aIdx, int bIdx){
-        T aElem = heap.get(aIdx);
-        T bElem = heap.get(bIdx);
-
-        heap.set(aIdx, bElem);
-        heap.set(bIdx, aElem);
-
-        TreeSet<Integer> aSet = sup.get(aElem);
-        TreeSet<Integer> bSet = sup.get(bElem);
-
-        aSet.remove(aIdx);
-        aSet.add(bIdx);
-
-        bSet.remove(bIdx);
-        bSet.add(aIdx);
-
-        sup.put(aElem, aSet);
-        sup.put(bElem, bSet);
+    private int getParentIdx(int idx){
+        return (idx-1) >> arityShift;
     }
 
-    private Integer getParentIdx(int idx){
-        if(idx == 0) return null;
-        if (firstChild(idx)) return (idx-1) / 2;
-        else return (idx-2) / 2;
+    private int getFirstChildIdx(int idx){
+        return (idx << arityShift) + 1;
     }
 
-    private boolean firstChild(int idx){
-        return (idx % 2) == 1;
+    private static int arityShift(int arity){
+        if(arity < 2 || Integer.bitCount(arity) != 1)
+            throw new IllegalArgumentException("Arity must be a power of two greater than 1");
+        return Integer.numberOfTrailingZeros(arity);
     }
 
 }
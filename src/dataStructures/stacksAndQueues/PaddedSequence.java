@@ -0,0 +1,39 @@
+package dataStructures.stacksAndQueues;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// Fields are laid out superclass first, thus the padding classes surround value on both sides
+abstract class SequenceLhsPadding {
+    long p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class SequenceValue extends SequenceLhsPadding {
+    volatile long value;
+    // Plain field owned by a single thread, e.g. the producer cached copy of the consumer sequence
+    long cache;
+}
+
+/**
+ * Counter padded to its own cache line(s), so that a producer and a consumer updating
+ * their own sequences do not keep invalidating each other's cache line (false sharing)
+ */
+final class PaddedSequence extends SequenceValue {
+    long p11, p12, p13, p14, p15, p16, p17;
+
+    private static final VarHandle VALUE;
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    long get(){ return value; }
+
+    // Release store: cheaper than a volatile write, still publishes all previous writes to a reader of value
+    void setRelease(long newValue){ VALUE.setRelease(this, newValue); }
+
+    boolean compareAndSet(long expected, long newValue){ return VALUE.compareAndSet(this, expected, newValue); }
+}
@@ -0,0 +1,187 @@
+package dataStructures.stacksAndQueues;
+
+/**
+ * Min pairing heap, same add/peek/poll/isEmpty/size API of PQueue plus:
+ * - meld(other) moving all elements of another heap into this one in O(1)
+ * - decreaseKey on the Handle returned by add, amortized O(log n) at worst (O(1) in practice)
+ *
+ * NOTES:
+ * - A heap ordered multiway tree stored as left child / right sibling,
+ *   prev points to the left sibling, or to the parent for the leftmost child
+ * - link(a, b) makes the root with the greater value the leftmost child of the other one: O(1)
+ * - poll removes the root and combines its children with the two pass strategy:
+ *   link them in pairs left to right, then link the pairs right to left. Amortized O(log n)
+ * - Both passes are iterative, degenerate heaps (e.g. ascending adds followed by a poll) do not overflow the stack
+ * - Each handle points to the owner token of the heap it was added to. meld forwards the token of the other heap
+ *   to this heap's one, clear replaces the token of the heap: decreaseKey follows the forwarding chain
+ *   (compressing it) and rejects handles whose token does not resolve to the current token of the heap
+ */
+public class PairingHeap<T extends Comparable<T>> {
+
+    // Heap node, returned to callers to address an element in decreaseKey
+    public static final class Handle<T> {
+        private T value;
+        private Handle<T> child, sibling, prev;
+        private boolean inHeap = true;
+        private Token owner;
+
+        private Handle(T value, Token owner){
+            this.value = value;
+            this.owner = owner;
+        }
+
+        public T getValue(){
+            return value;
+        }
+    }
+
+    // Identifies the heap (and its current generation, see clear) which a handle belongs to
+    private static final class Token {
+        // Set once the heap owning this token is melded into another one
+        private Token forward;
+    }
+
+    private Handle<T> root = null;
+    private int size = 0;
+    private Token token = new Token();
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public T peek(){
+        if(isEmpty()) return null;
+        return root.value;
+    }
+
+    public Handle<T> add(T elem){
+        if(elem == null) throw new RuntimeException("Attempting to add null element!");
+
+        Handle<T> node = new Handle<>(elem, token);
+        root = root == null ? node : link(root, node);
+        size++;
+        return node;
+    }
+
+    public T poll(){
+        if(isEmpty()) return null;
+
+        Handle<T> oldRoot = root;
+        root = combineSiblings(oldRoot.child);
+        size--;
+
+        oldRoot.child = null;
+        oldRoot.inHeap = false;
+        return oldRoot.value;
+    }
+
+    /**
+     * Lowers the value of the element addressed by handle, which must belong to this heap
+     * (handles of a heap melded into this one keep working)
+     */
+    public void decreaseKey(Handle<T> handle, T newValue){
+        if(newValue == null) throw new RuntimeException("Attempting to add null element!");
+        if(!handle.inHeap || resolveOwner(handle) != token) throw new IllegalArgumentException("Element not in this heap");
+        if(newValue.compareTo(handle.value) > 0) throw new IllegalArgumentException("New value is greater than the current one");
+
+        handle.value = newValue;
+        if(handle == root) return;
+
+        // Cutting the subtree rooted in handle and linking it back to the root
+        if(handle.prev.child == handle) handle.prev.child = handle.sibling;
+        else handle.prev.sibling = handle.sibling;
+        if(handle.sibling != null) handle.sibling.prev = handle.prev;
+        handle.prev = handle.sibling = null;
+
+        root = link(root, handle);
+    }
+
+    // Moves all elements of other into this heap leaving other empty, O(1)
+    public void meld(PairingHeap<T> other){
+        if(other == this) throw new IllegalArgumentException("Cannot meld a heap with itself");
+        if(other.isEmpty()) return;
+
+        root = root == null ? other.root : link(root, other.root);
+        size += other.size;
+
+        // Handles of other now belong to this heap, other starts a new generation
+        other.token.forward = token;
+        other.token = new Token();
+        other.root = null;
+        other.size = 0;
+    }
+
+    // Handles of the dropped elements are invalidated, decreaseKey rejects them
+    public void clear(){
+        token = new Token();
+        root = null;
+        size = 0;
+    }
+
+    // Token at the end of the forwarding chain of handle, which is then pointed directly to it
+    private Token resolveOwner(Handle<T> handle){
+        Token owner = handle.owner;
+        while(owner.forward != null) owner = owner.forward;
+
+        // Path compression: later lookups from this handle or through the same tokens are O(1)
+        for(Token t = handle.owner; t != owner; ){
+            Token next = t.forward;
+            t.forward = owner;
+            t = next;
+        }
+        handle.owner = owner;
+        return owner;
+    }
+
+
+    // Both a and b are roots (no prev nor sibling), the one with the greater value becomes the leftmost child of the other
+    private Handle<T> link(Handle<T> a, Handle<T> b){
+        if(b.value.compareTo(a.value) < 0){
+            Handle<T> tmp = a;
+            a = b;
+            b = tmp;
+        }
+
+        b.sibling = a.child;
+        if(a.child != null) a.child.prev = b;
+        b.prev = a;
+        a.child = b;
+        return a;
+    }
+
+    private Handle<T> combineSiblings(Handle<T> first){
+        if(first == null) return null;
+
+        // First pass: linking pairs left to right, results are chained in reverse order through sibling
+        Handle<T> pairs = null;
+        while(first != null){
+            Handle<T> a = first;
+            Handle<T> b = a.sibling;
+            first = b == null ? null : b.sibling;
+
+            a.sibling = a.prev = null;
+            if(b != null){
+                b.sibling = b.prev = null;
+                a = link(a, b);
+            }
+            a.sibling = pairs;
+            pairs = a;
+        }
+
+        // Second pass: linking the pairs right to left into a single tree
+        Handle<T> result = pairs;
+        pairs = pairs.sibling;
+        result.sibling = null;
+        while(pairs != null){
+            Handle<T> next = pairs.sibling;
+            pairs.sibling = null;
+            result = link(result, pairs);
+            pairs = next;
+        }
+        return result;
+    }
+}
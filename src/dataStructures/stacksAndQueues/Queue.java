@@ -3,7 +3,18 @@ package dataStructures.stacksAndQueues;
 import dataStructures.DLList;
 
 public class Queue<T> {
-    private DLList<T> data = new DLList<>();
+    private DLList<T> data;
+
+    public Queue(){
+        this(0);
+    }
+
+    /**
+     * @param pooledNodes max number of list nodes recycled across dequeue/enqueue, 0 disables pooling
+     */
+    public Queue(int pooledNodes){
+        data = new DLList<>(pooledNodes);
+    }
 
     public int size(){
         return data.size();
@@ -0,0 +1,98 @@
+package dataStructures.stacksAndQueues;
+
+import dataStructures.LongArrayList;
+
+/**
+ * Monotone min priority queue of (key, id) pairs with non negative int keys:
+ * a pushed key can never be smaller than the last extracted one, which is the case of Dijkstra with non negative costs.
+ *
+ * NOTES:
+ * - Entries are kept in 32 buckets relative to last, the last extracted key:
+ *   bucket 0 holds keys equal to last, bucket b > 0 keys whose highest bit differing from last is bit b-1
+ * - When bucket 0 is empty, the first non empty bucket is scanned for its min which becomes the new last,
+ *   and its entries are spread over lower buckets. Each entry can only move down, at most 32 times overall,
+ *   so push is O(1) and popMin amortized O(log C) with C the largest key, without any comparison tree
+ * - Key and id are packed in a single long, buckets are LongArrayList thus nothing is allocated once they have grown
+ */
+public class RadixHeap {
+
+    private static final int BUCKETS = 32;
+
+    private final LongArrayList[] buckets = new LongArrayList[BUCKETS];
+    private int last = 0;
+    private int size = 0;
+
+    public RadixHeap(){
+        for(int i = 0; i < BUCKETS; i++) buckets[i] = new LongArrayList(16);
+    }
+
+    public int size(){ return size; }
+    public boolean isEmpty(){ return size == 0; }
+
+    public void push(int key, int id){
+        if(key < last) throw new IllegalArgumentException("Key " + key + " is smaller than the last extracted one " + last);
+        buckets[bucketFor(key)].add(((long) key << 32) | (id & 0xFFFFFFFFL));
+        size++;
+    }
+
+    // Key of the entry popMin would return. It leaves the buckets untouched, so the monotone floor stays lastKey():
+    // when bucket 0 is empty the min is found scanning the first non empty bucket
+    public int peekMinKey(){
+        if(isEmpty()) throw new RuntimeException("Empty queue!");
+        if(!buckets[0].isEmpty()) return last;
+
+        LongArrayList bucket = buckets[firstNonEmptyBucket()];
+        return minKey(bucket.backingArray(), bucket.size());
+    }
+
+    // Removes an entry with the min key returning its id, the key is then available through lastKey()
+    public int popMin(){
+        if(isEmpty()) throw new RuntimeException("Empty queue!");
+        if(buckets[0].isEmpty()) redistribute();
+
+        LongArrayList minBucket = buckets[0];
+        size--;
+        return (int) minBucket.removeAt(minBucket.size() - 1);
+    }
+
+    // Key of the last extracted entry
+    public int lastKey(){
+        return last;
+    }
+
+    public void clear(){
+        for(LongArrayList bucket : buckets) bucket.clear();
+        last = 0;
+        size = 0;
+    }
+
+
+    private void redistribute(){
+        LongArrayList bucket = buckets[firstNonEmptyBucket()];
+        long[] entries = bucket.backingArray();
+        int count = bucket.size();
+
+        last = minKey(entries, count);
+
+        // Relative to the new last every entry lands in a lower bucket
+        for(int i = 0; i < count; i++) buckets[bucketFor((int) (entries[i] >>> 32))].add(entries[i]);
+        bucket.clear();
+    }
+
+    // Only called with bucket 0 empty and at least one entry
+    private int firstNonEmptyBucket(){
+        int b = 1;
+        while(buckets[b].isEmpty()) b++;
+        return b;
+    }
+
+    private static int minKey(long[] entries, int count){
+        int min = Integer.MAX_VALUE;
+        for(int i = 0; i < count; i++) min = Math.min(min, (int) (entries[i] >>> 32));
+        return min;
+    }
+
+    private int bucketFor(int key){
+        return key == last ? 0 : 32 - Integer.numberOfLeadingZeros(key ^ last);
+    }
+}
@@ -0,0 +1,132 @@
+package dataStructures.stacksAndQueues;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock free queue for exactly one producer thread and one consumer thread.
+ *
+ * NOTES:
+ * - Circular buffer with power of two capacity, tail is written only by the producer and head only by the consumer
+ * - head and tail live in separate padded sequences to avoid false sharing, each side also keeps a plain cached copy
+ *   of the other sequence and rereads the shared one only when the cache says the buffer is full / empty
+ * - An element is written before tail is advanced with a release store, so the consumer
+ *   reading the new tail always sees it (and symmetrically for head and freed slots)
+ * - offerBatch/drainTo move many elements paying a single sequence update
+ */
+public class SpscQueue<T> {
+
+    private final T[] buffer;
+    private final int mask;
+    // tail.cache is the producer copy of head, head.cache is the consumer copy of tail
+    private final PaddedSequence head = new PaddedSequence();
+    private final PaddedSequence tail = new PaddedSequence();
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public SpscQueue(int capacity){
+        if(capacity <= 0 || capacity > 1 << 30) throw new IllegalArgumentException("Illegal capacity");
+        int cap = Integer.highestOneBit(capacity);
+        if(cap < capacity) cap <<= 1;
+
+        buffer = (T[]) new Object[cap];
+        mask = cap - 1;
+    }
+
+    // Approximated while producer and consumer are running
+    public int size(){
+        return (int) (tail.get() - head.get());
+    }
+
+    public boolean isEmpty(){
+        return size() == 0;
+    }
+
+    public int capacity(){
+        return buffer.length;
+    }
+
+    // Producer only, false if the queue is full
+    public boolean offer(T elem){
+        if(elem == null) throw new IllegalArgumentException("Null element");
+        long t = tail.value;
+        if(t - tail.cache == buffer.length){
+            tail.cache = head.get();
+            if(t - tail.cache == buffer.length) return false;
+        }
+
+        buffer[(int) t & mask] = elem;
+        tail.setRelease(t + 1);
+        return true;
+    }
+
+    /**
+     * Producer only, offers elems[from, from+count) until the queue is full
+     * @return the number of elements actually enqueued
+     */
+    public int offerBatch(T[] elems, int from, int count){
+        long t = tail.value;
+        long free = buffer.length - (t - tail.cache);
+        if(free < count){
+            tail.cache = head.get();
+            free = buffer.length - (t - tail.cache);
+        }
+
+        int n = (int) Math.min(free, count);
+        for(int i = 0; i < n; i++){
+            if(elems[from + i] == null) throw new IllegalArgumentException("Null element");
+            buffer[(int) (t + i) & mask] = elems[from + i];
+        }
+        if(n > 0) tail.setRelease(t + n);
+        return n;
+    }
+
+    // Consumer only, null if the queue is empty
+    public T poll(){
+        long h = head.value;
+        if(h == head.cache){
+            head.cache = tail.get();
+            if(h == head.cache) return null;
+        }
+
+        int idx = (int) h & mask;
+        T elem = buffer[idx];
+        buffer[idx] = null;
+        head.setRelease(h + 1);
+        return elem;
+    }
+
+    // Consumer only
+    public T peek(){
+        long h = head.value;
+        if(h == head.cache){
+            head.cache = tail.get();
+            if(h == head.cache) return null;
+        }
+        return buffer[(int) h & mask];
+    }
+
+    /**
+     * Consumer only, hands at most limit elements to consumer
+     * @return the number of elements drained
+     */
+    public int drainTo(Consumer<? super T> consumer, int limit){
+        long h = head.value;
+        head.cache = tail.get();
+        int n = (int) Math.min(head.cache - h, limit);
+
+        for(int i = 0; i < n; i++){
+            int idx = (int) (h + i) & mask;
+            T elem = buffer[idx];
+            buffer[idx] = null;
+            consumer.accept(elem);
+        }
+        if(n > 0) head.setRelease(h + n);
+        return n;
+    }
+
+    public int drainTo(Collection<? super T> out, int limit){
+        return drainTo(out::add, limit);
+    }
+}
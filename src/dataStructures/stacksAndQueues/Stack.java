@@ -4,7 +4,18 @@ import dataStructures.DLList;
 
 public class Stack<T> {
 
-    private DLList<T> data = new DLList<>();
+    private DLList<T> data;
+
+    public Stack(){
+        this(0);
+    }
+
+    /**
+     * @param pooledNodes max number of list nodes recycled across pop/push, 0 disables pooling
+     */
+    public Stack(int pooledNodes){
+        data = new DLList<>(pooledNodes);
+    }
 
     public int size(){
         return data.size();
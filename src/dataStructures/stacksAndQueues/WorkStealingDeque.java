@@ -0,0 +1,123 @@
+package dataStructures.stacksAndQueues;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Chase-Lev work stealing deque: the owner thread pushes and pops at the bottom like on a Stack,
+ * any other thread can steal from the top like from a Queue.
+ *
+ * NOTES:
+ * - Elements live in a circular array indexed by the ever increasing top and bottom counters, [top, bottom) are the live ones
+ * - push/pop are performed by the owner without locks nor CAS, except when pop races with a steal for the last element
+ * - Thieves claim the top element with a CAS on top, a thief losing the race simply gets null
+ * - When full the owner copies live elements into an array twice as big, thieves still reading the old array
+ *   find the same elements at the same logical indices
+ * - Taken slots are cleared so that the deque does not keep finished elements reachable. The owner clears with a plain
+ *   write, a thief with a CAS from the stolen element to null: by then the owner may already have reused the slot
+ */
+public class WorkStealingDeque<T> {
+
+    private static final int DEFAULT_CAPACITY = 32;
+
+    private static final class CircularArray<T> {
+        final AtomicReferenceArray<T> items;
+        final int mask;
+
+        CircularArray(int capacity){
+            items = new AtomicReferenceArray<>(capacity);
+            mask = capacity - 1;
+        }
+
+        int capacity(){ return items.length(); }
+        T get(long i){ return items.get((int) i & mask); }
+        void put(long i, T value){ items.set((int) i & mask, value); }
+        void clear(long i, T expected){ items.compareAndSet((int) i & mask, expected, null); }
+
+        CircularArray<T> grow(long top, long bottom){
+            CircularArray<T> bigger = new CircularArray<>(capacity() * 2);
+            for(long i = top; i < bottom; i++) bigger.put(i, get(i));
+            return bigger;
+        }
+    }
+
+    private final AtomicLong top = new AtomicLong();
+    private volatile long bottom = 0;
+    private volatile CircularArray<T> array;
+
+    public WorkStealingDeque(){
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity initial capacity, rounded up to a power of two
+     */
+    public WorkStealingDeque(int capacity){
+        if(capacity <= 0 || capacity > 1 << 30) throw new IllegalArgumentException("Illegal capacity");
+        int cap = Integer.highestOneBit(capacity);
+        if(cap < capacity) cap <<= 1;
+        array = new CircularArray<>(cap);
+    }
+
+    // Approximated when called concurrently with other operations
+    public int size(){
+        return (int) Math.max(0, bottom - top.get());
+    }
+
+    public boolean isEmpty(){
+        return size() == 0;
+    }
+
+    // Owner only
+    public void push(T elem){
+        if(elem == null) throw new IllegalArgumentException("Null element");
+        long b = bottom;
+        long t = top.get();
+        CircularArray<T> a = array;
+        if(b - t >= a.capacity()){
+            a = a.grow(t, b);
+            array = a;
+        }
+        a.put(b, elem);
+        bottom = b + 1;
+    }
+
+    // Owner only, takes the most recently pushed element or null if empty
+    public T pop(){
+        long b = bottom - 1;
+        CircularArray<T> a = array;
+        // Volatile write then volatile read: thieves reading bottom from now on cannot take element b
+        bottom = b;
+        long t = top.get();
+
+        if(t > b){
+            // Empty deque
+            bottom = b + 1;
+            return null;
+        }
+
+        T elem = a.get(b);
+        if(t == b){
+            // Last element, race against thieves for it: the winning thief clears the slot
+            if(!top.compareAndSet(t, t + 1)) elem = null;
+            else a.put(b, null);
+            bottom = b + 1;
+        } else {
+            a.put(b, null);
+        }
+        return elem;
+    }
+
+    // Any thread, takes the least recently pushed element. Returns null if empty or if another thread won the race
+    public T steal(){
+        long t = top.get();
+        long b = bottom;
+        if(t >= b) return null;
+
+        CircularArray<T> a = array;
+        T elem = a.get(t);
+        if(!top.compareAndSet(t, t + 1)) return null;
+        a.clear(t, elem);
+        return elem;
+    }
+}
@@ -1,15 +1,31 @@
 package dataStructures.trees;
 
+import java.util.ArrayDeque;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.NoSuchElementException;
 import java.util.Queue;
 
-public class AVLTree<T extends Comparable<T>>  {
+/**
+ * Self balancing binary search tree of distinct values.
+ *
+ * NOTES:
+ * - Each node stores height and balance factor, plus the size of its subtree (order statistic tree):
+ *   all three are recomputed from the children in updateNode, which runs on the insert/remove path
+ *   and on the two nodes involved in each rotation, so they never cost more than O(1) per visited node
+ * - Subtree sizes make rank, select and countInRange O(log n): they walk a single root to leaf path
+ *   summing the sizes of the left subtrees skipped along the way
+ */
+public class AVLTree<T extends Comparable<T>> implements Iterable<T> {
 
     private class Node {
         T data;
         int height;
         // short for BalanceFactor
         int bf;
+        // number of nodes in the subtree rooted here
+        int size = 1;
         Node left, right;
 
         public Node(T data, Node left, Node right) {
@@ -30,6 +46,17 @@ public class AVLTree<T extends Comparable<T>>  {
         return contains(root, value);
     }
 
+    // Returns the stored value equal to value (compareTo == 0) or null if there is none
+    public T find(T value){
+        Node trav = root;
+        while(trav != null){
+            int cmp = value.compareTo(trav.data);
+            if(cmp == 0) return trav.data;
+            trav = cmp < 0 ? trav.left : trav.right;
+        }
+        return null;
+    }
+
     public boolean insert(T value){
         if(value == null) return false;
         if(contains(value)) return false;
@@ -45,6 +72,98 @@ public class AVLTree<T extends Comparable<T>>  {
         return true;
     }
 
+    // Number of values strictly smaller than value
+    public int rank(T value){
+        return countBelow(value, false);
+    }
+
+    // k-th smallest value, 0 based
+    public T select(int k){
+        if(k < 0 || k >= nodeCount) throw new IndexOutOfBoundsException("Index: " + k + ", size: " + nodeCount);
+
+        Node trav = root;
+        while(true){
+            int leftSize = sizeOf(trav.left);
+            if(k == leftSize) return trav.data;
+            if(k < leftSize){
+                trav = trav.left;
+            } else {
+                k -= leftSize + 1;
+                trav = trav.right;
+            }
+        }
+    }
+
+    // Number of values v such that lo <= v <= hi
+    public int countInRange(T lo, T hi){
+        if(lo.compareTo(hi) > 0) return 0;
+        return countBelow(hi, true) - countBelow(lo, false);
+    }
+
+    // Greatest value <= value, null if there is none
+    public T floor(T value){
+        return closest(value, true, true);
+    }
+
+    // Smallest value >= value, null if there is none
+    public T ceiling(T value){
+        return closest(value, false, true);
+    }
+
+    // Greatest value < value, null if there is none
+    public T lower(T value){
+        return closest(value, true, false);
+    }
+
+    // Smallest value > value, null if there is none
+    public T higher(T value){
+        return closest(value, false, false);
+    }
+
+    // Number of values < value, or <= value when inclusive
+    private int countBelow(T value, boolean inclusive){
+        int count = 0;
+        Node trav = root;
+        while(trav != null){
+            int cmp = value.compareTo(trav.data);
+            if(cmp > 0 || (cmp == 0 && inclusive)){
+                // trav and its whole left subtree are below value
+                count += sizeOf(trav.left) + 1;
+                trav = trav.right;
+            } else {
+                trav = trav.left;
+            }
+        }
+        return count;
+    }
+
+    // Closest value below (or above) value, equality accepted when inclusive
+    private T closest(T value, boolean below, boolean inclusive){
+        T best = null;
+        Node trav = root;
+        while(trav != null){
+            int cmp = value.compareTo(trav.data);
+            if(cmp == 0 && inclusive) return trav.data;
+
+            if(below){
+                if(cmp > 0){
+                    best = trav.data;
+                    trav = trav.right;
+                } else trav = trav.left;
+            } else {
+                if(cmp < 0){
+                    best = trav.data;
+                    trav = trav.left;
+                } else trav = trav.right;
+            }
+        }
+        return best;
+    }
+
+    private int sizeOf(Node node){
+        return node == null ? 0 : node.size;
+    }
+
     private boolean contains(Node node, T value){
         if(node == null) return false;
         int cmp = value.compareTo(node.data);
@@ -60,7 +179,7 @@ public class AVLTree<T extends Comparable<T>>  {
 
         int cmp = value.compareTo(node.data);
 
-        if(cmp > 0) node.left = insert(node.left, value);
+        if(cmp < 0) node.left = insert(node.left, value);
         else node.right = insert(node.right, value);
 
         // Update balance factors and height values
@@ -111,6 +230,7 @@ public class AVLTree<T extends Comparable<T>>  {
 
         node.height = 1 + Math.max(rightNodeHeight, leftNodeHeight);
         node.bf = rightNodeHeight - leftNodeHeight;
+        node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
     }
 
     private Node balanceNode(Node node){
@@ -145,7 +265,7 @@ public class AVLTree<T extends Comparable<T>>  {
     }
 
     private Node rightLeftCase(Node node){
-        node.right = rightRightCase(node.right);
+        node.right = rightRotation(node.right);
         return leftRotation(node);
     }
 
@@ -182,4 +302,30 @@ public class AVLTree<T extends Comparable<T>>  {
         }
         return trav.data;
     }
+
+    // In order traversal
+    @Override
+    public Iterator<T> iterator() {
+        int expNodeCount = nodeCount; // to spot concurrent modifications
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        for(Node trav = root; trav != null; trav = trav.left) stack.push(trav);
+
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                if(expNodeCount != nodeCount) throw new ConcurrentModificationException();
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if(expNodeCount != nodeCount) throw new ConcurrentModificationException();
+                if(stack.isEmpty()) throw new NoSuchElementException();
+
+                Node node = stack.pop();
+                for(Node trav = node.right; trav != null; trav = trav.left) stack.push(trav);
+                return node.data;
+            }
+        };
+    }
 }
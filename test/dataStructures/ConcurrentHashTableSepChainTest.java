@@ -0,0 +1,136 @@
+package dataStructures;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static testUtils.Checks.check;
+import static testUtils.Checks.runConcurrently;
+import static testUtils.Checks.stressThreads;
+
+/**
+ * Stress test of ConcurrentHashTableSepChain, run as a plain main.
+ * Also prints the throughput of a mixed workload against HashTableSepChain behind a single lock (informative only).
+ */
+public class ConcurrentHashTableSepChainTest {
+
+    public static void main(String[] args){
+        sequentialMatchesHashMap();
+        concurrentInsertsDuringResizeLoseNothing();
+        concurrentRemovesSucceedExactlyOnce();
+        throughputAgainstSingleLock();
+        System.out.println("OK ConcurrentHashTableSepChainTest");
+    }
+
+    private static void sequentialMatchesHashMap(){
+        ConcurrentHashTableSepChain<Integer, Integer> table = new ConcurrentHashTableSepChain<>(4, 0.75, 4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(1);
+
+        for(int i = 0; i < 200_000; i++){
+            int key = random.nextInt(5_000);
+            switch (random.nextInt(3)){
+                case 0: check(Objects.equals(table.put(key, i), expected.put(key, i)), "put " + key); break;
+                case 1: check(Objects.equals(table.get(key), expected.get(key)), "get " + key); break;
+                default: check(Objects.equals(table.remove(key), expected.remove(key)), "remove " + key);
+            }
+        }
+        check(table.size() == expected.size(), "size");
+    }
+
+    // Writers insert disjoint key ranges into a tiny table, forcing many segment resizes,
+    // while readers keep checking keys inserted up front: lock free reads must never miss them
+    private static void concurrentInsertsDuringResizeLoseNothing(){
+        int writers = stressThreads(), readers = 4, perWriter = 50_000, stable = 1_000;
+        ConcurrentHashTableSepChain<Integer, Integer> table = new ConcurrentHashTableSepChain<>(2, 0.75, 8);
+        for(int k = 0; k < stable; k++) table.put(-k - 1, k);
+
+        runConcurrently(writers + readers, 60, t -> {
+            if(t < writers){
+                for(int i = 0; i < perWriter; i++){
+                    int key = t * perWriter + i;
+                    check(table.put(key, key) == null, "fresh key already present " + key);
+                }
+            } else {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for(int i = 0; i < 200_000; i++){
+                    int k = random.nextInt(stable);
+                    Integer value = table.get(-k - 1);
+                    check(value != null && value == k, "stable key missed during resize " + (-k - 1));
+                }
+            }
+        });
+
+        check(table.size() == stable + writers * perWriter, "size " + table.size());
+        for(int key = 0; key < writers * perWriter; key++){
+            Integer value = table.get(key);
+            check(value != null && value == key, "lost key " + key);
+        }
+    }
+
+    // All threads try to remove every key: each removal must succeed for exactly one of them
+    private static void concurrentRemovesSucceedExactlyOnce(){
+        int threads = stressThreads(), keys = 100_000;
+        ConcurrentHashTableSepChain<Integer, Integer> table = new ConcurrentHashTableSepChain<>();
+        for(int k = 0; k < keys; k++) table.put(k, k);
+        AtomicIntegerArray removals = new AtomicIntegerArray(keys);
+
+        runConcurrently(threads, 60, t -> {
+            // Different starting points make threads collide on the same keys at different times
+            int offset = t * (keys / threads);
+            for(int i = 0; i < keys; i++){
+                int key = (offset + i) % keys;
+                Integer value = table.remove(key);
+                if(value != null){
+                    check(value == key, "wrong value removed for " + key);
+                    removals.incrementAndGet(key);
+                }
+            }
+        });
+
+        for(int k = 0; k < keys; k++) check(removals.get(k) == 1, "key " + k + " removed " + removals.get(k) + " times");
+        check(table.isEmpty() && table.size() == 0, "table not empty");
+    }
+
+    private static void throughputAgainstSingleLock(){
+        int threads = stressThreads(), opsPerThread = 500_000, keys = 100_000;
+
+        ConcurrentHashTableSepChain<Integer, Integer> striped = new ConcurrentHashTableSepChain<>();
+        long stripedNanos = timeMixed(threads, opsPerThread, keys, new Ops() {
+            public void put(int key){ striped.put(key, key); }
+            public void get(int key){ striped.get(key); }
+        });
+
+        HashTableSepChain<Integer, Integer> plain = new HashTableSepChain<>();
+        Object lock = new Object();
+        long lockedNanos = timeMixed(threads, opsPerThread, keys, new Ops() {
+            public void put(int key){ synchronized (lock){ plain.put(key, key); } }
+            public void get(int key){ synchronized (lock){ plain.get(key); } }
+        });
+
+        double totalOps = (double) threads * opsPerThread;
+        System.out.printf("%d threads, 90%% get / 10%% put: striped %.1f Mops/s, single lock %.1f Mops/s%n",
+                threads, totalOps * 1e3 / stripedNanos, totalOps * 1e3 / lockedNanos);
+    }
+
+    private interface Ops {
+        void put(int key);
+        void get(int key);
+    }
+
+    private static long timeMixed(int threads, int opsPerThread, int keys, Ops ops){
+        long start = System.nanoTime();
+        runConcurrently(threads, 120, t -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for(int i = 0; i < opsPerThread; i++){
+                int key = random.nextInt(keys);
+                if(random.nextInt(10) == 0) ops.put(key);
+                else ops.get(key);
+            }
+        });
+        return System.nanoTime() - start;
+    }
+}
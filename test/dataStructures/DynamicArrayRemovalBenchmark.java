@@ -0,0 +1,72 @@
+package dataStructures;
+
+import static testUtils.Checks.check;
+
+/**
+ * Prints the time of DynamicArray.removeIf removing every other element at growing sizes up to 10M elements:
+ * time per element must stay about flat. For contrast, it also prints the same removal done with removeAt
+ * in a loop, quadratic, at sizes small enough to finish.
+ */
+public class DynamicArrayRemovalBenchmark {
+
+    private static final int TRIALS = 3;
+
+    public static void main(String[] args){
+        Integer[] values = new Integer[10_000_000];
+        for(int i = 0; i < values.length; i++) values[i] = i;
+
+        System.out.println("removing 50% of the elements:");
+        double smallest = 0, largest = 0;
+        for(int n = 1_250_000; n <= values.length; n *= 2){
+            double nsPerElement = (double) bestRemoveIf(values, n) / n;
+            System.out.printf("  removeIf         %,11d elements: %6.2f ns/element%n", n, nsPerElement);
+            if(smallest == 0) smallest = nsPerElement;
+            largest = nsPerElement;
+        }
+
+        for(int n = 12_500; n <= 100_000; n *= 2){
+            System.out.printf("  removeAt loop    %,11d elements: %6.2f ns/element%n", n, (double) bestRemoveAtLoop(values, n) / n);
+        }
+
+        // Linear means a flat cost per element, allowing for cache effects of the larger arrays
+        check(largest < 3 * smallest, "removeIf cost per element grew from " + smallest + " to " + largest + " ns");
+        System.out.println("OK DynamicArrayRemovalBenchmark");
+    }
+
+    private static long bestRemoveIf(Integer[] values, int n){
+        long best = Long.MAX_VALUE;
+        for(int trial = 0; trial < TRIALS; trial++){
+            DynamicArray<Integer> array = filled(values, n);
+            long start = System.nanoTime();
+            array.removeIf(e -> (e & 1) == 0);
+            best = Math.min(best, System.nanoTime() - start);
+            checkOdds(array, n);
+        }
+        return best;
+    }
+
+    private static long bestRemoveAtLoop(Integer[] values, int n){
+        long best = Long.MAX_VALUE;
+        for(int trial = 0; trial < TRIALS; trial++){
+            DynamicArray<Integer> array = filled(values, n);
+            long start = System.nanoTime();
+            for(int i = 0; i < array.size(); i++){
+                if((array.get(i) & 1) == 0) array.removeAt(i--);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+            checkOdds(array, n);
+        }
+        return best;
+    }
+
+    private static DynamicArray<Integer> filled(Integer[] values, int n){
+        DynamicArray<Integer> array = new DynamicArray<>(n);
+        for(int i = 0; i < n; i++) array.add(values[i]);
+        return array;
+    }
+
+    private static void checkOdds(DynamicArray<Integer> array, int n){
+        check(array.size() == n / 2, "size after removal");
+        for(int i = 0; i < array.size(); i++) check(array.get(i) == 2 * i + 1, "element " + i + " after removal");
+    }
+}
@@ -0,0 +1,54 @@
+package dataStructures;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import static testUtils.Checks.bestOf;
+import static testUtils.Checks.check;
+
+/**
+ * Prints the time of an aggregation over a 10M element DynamicArray through parallelStream() at 1/2/4/8 threads,
+ * against the sequential stream(). Each run is checked against the sequential result.
+ * Parallel streams run in the pool they are started from, thus each parallelism gets its own ForkJoinPool.
+ */
+public class DynamicArrayStreamBenchmark {
+
+    private static final int N = 10_000_000, TRIALS = 3;
+
+    public static void main(String[] args){
+        DynamicArray<Integer> array = new DynamicArray<>(N);
+        for(int i = 0; i < N; i++) array.add(i);
+
+        long[] expected = new long[1];
+        long sequential = bestOf(TRIALS, () -> expected[0] = array.stream().mapToLong(DynamicArrayStreamBenchmark::mix).sum());
+
+        System.out.println("aggregation over " + N + " elements on " + Runtime.getRuntime().availableProcessors() + " cores:");
+        System.out.printf("  stream()                   %7.1f ms%n", sequential / 1e6);
+        for(int threads : new int[]{1, 2, 4, 8}){
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                long nanos = bestOf(TRIALS, () -> {
+                    long sum;
+                    try {
+                        sum = pool.submit(() -> array.parallelStream().mapToLong(DynamicArrayStreamBenchmark::mix).sum()).get();
+                    } catch (InterruptedException | ExecutionException e) {
+                        throw new RuntimeException(e);
+                    }
+                    check(sum == expected[0], "parallel sum differs from the sequential one");
+                });
+                System.out.printf("  parallelStream(), %d threads %7.1f ms%n", threads, nanos / 1e6);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        System.out.println("OK DynamicArrayStreamBenchmark");
+    }
+
+    // Some CPU work per element so that the aggregation is not bound by memory bandwidth alone
+    private static long mix(Integer value){
+        long x = value * 0x9E3779B97F4A7C15L;
+        x ^= x >>> 31;
+        x *= 0xBF58476D1CE4E5B9L;
+        return x ^ (x >>> 29);
+    }
+}
@@ -0,0 +1,64 @@
+package dataStructures;
+
+import java.util.Random;
+
+import static testUtils.Checks.bestOf;
+import static testUtils.Checks.check;
+
+/**
+ * Prints the time of the HashTableSepChain batch operations against the same work done with looped single calls,
+ * on 1M random keys. Results of both are checked to be the same.
+ */
+public class HashTableSepChainBatchBenchmark {
+
+    private static final int KEYS = 1_000_000, TRIALS = 3;
+
+    public static void main(String[] args){
+        Random random = new Random(6);
+        Integer[] keys = new Integer[KEYS], values = new Integer[KEYS];
+        for(int i = 0; i < KEYS; i++){
+            keys[i] = random.nextInt();
+            values[i] = i;
+        }
+        Integer[] batchOut = new Integer[KEYS], loopOut = new Integer[KEYS];
+
+        // Puts start from an empty table: the batch resizes once up front, the loop about 20 times
+        long batchPut = bestOf(TRIALS, () -> new HashTableSepChain<Integer, Integer>().putAll(keys, values));
+        long loopPut = bestOf(TRIALS, () -> {
+            HashTableSepChain<Integer, Integer> table = new HashTableSepChain<>();
+            for(int i = 0; i < KEYS; i++) table.put(keys[i], values[i]);
+        });
+
+        HashTableSepChain<Integer, Integer> table = new HashTableSepChain<>();
+        table.putAll(keys, values);
+        long batchGet = bestOf(TRIALS, () -> table.getAll(keys, batchOut));
+        long loopGet = bestOf(TRIALS, () -> { for(int i = 0; i < KEYS; i++) loopOut[i] = table.get(keys[i]); });
+        for(int i = 0; i < KEYS; i++) check(batchOut[i].equals(loopOut[i]), "getAll differs from get for " + keys[i]);
+
+        // Removes need a full table each time, filled outside of the timed section
+        HashTableSepChain<Integer, Integer>[] tables = filledTables(2 * TRIALS, keys, values);
+        int[] next = {0};
+        long batchRemove = bestOf(TRIALS, () -> check(tables[next[0]++].removeAll(keys) == table.size(), "removeAll count"));
+        long loopRemove = bestOf(TRIALS, () -> {
+            HashTableSepChain<Integer, Integer> t = tables[next[0]++];
+            for(int i = 0; i < KEYS; i++) t.remove(keys[i]);
+            check(t.isEmpty(), "loop remove left keys behind");
+        });
+
+        System.out.printf("%d keys, batch vs looped single calls:%n", KEYS);
+        System.out.printf("  put     %6.1f ms vs %6.1f ms%n", batchPut / 1e6, loopPut / 1e6);
+        System.out.printf("  get     %6.1f ms vs %6.1f ms%n", batchGet / 1e6, loopGet / 1e6);
+        System.out.printf("  remove  %6.1f ms vs %6.1f ms%n", batchRemove / 1e6, loopRemove / 1e6);
+        System.out.println("OK HashTableSepChainBatchBenchmark");
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static HashTableSepChain<Integer, Integer>[] filledTables(int n, Integer[] keys, Integer[] values){
+        HashTableSepChain<Integer, Integer>[] tables = new HashTableSepChain[n];
+        for(int i = 0; i < n; i++){
+            tables[i] = new HashTableSepChain<>();
+            tables[i].putAll(keys, values);
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,128 @@
+package dataStructures;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import static testUtils.Checks.check;
+
+/**
+ * Checks HashTableSepChain with incremental resize: results while a migration is in progress must match a HashMap,
+ * and the worst put latency must drop compared to the stop the world resize.
+ * Prints a log2 histogram of the put latencies of both modes.
+ */
+public class HashTableSepChainResizeTest {
+
+    private static final int PUTS = 1 << 20;
+    private static final int TRIALS = 3;
+    private static final long GC_CHECK_NANOS = 50_000;
+
+    public static void main(String[] args){
+        operationsDuringMigrationMatchHashMap();
+        incrementalResizeBoundsPutLatency();
+        System.out.println("OK HashTableSepChainResizeTest");
+    }
+
+    private static void operationsDuringMigrationMatchHashMap(){
+        HashTableSepChain<Integer, Integer> table = new HashTableSepChain<>(3, 0.75, true);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(3);
+        int opsWhileResizing = 0;
+
+        for(int i = 0; i < 500_000; i++){
+            // Key space growing with i keeps the table resizing all along
+            int key = random.nextInt(1 + i / 4);
+            if(table.isResizing()) opsWhileResizing++;
+            switch (random.nextInt(4)){
+                case 0: case 1:
+                    table.put(key, i);
+                    expected.put(key, i);
+                    check(Integer.valueOf(i).equals(table.get(key)), "put " + key);
+                    break;
+                case 2: check(Objects.equals(table.get(key), expected.get(key)), "get " + key); break;
+                default: check(Objects.equals(table.remove(key), expected.remove(key)), "remove " + key);
+            }
+            check(table.size() == expected.size(), "size after op " + i);
+        }
+
+        check(opsWhileResizing > 0, "the table never resized incrementally");
+        for(Map.Entry<Integer, Integer> entry : expected.entrySet())
+            check(entry.getValue().equals(table.get(entry.getKey())), "final get " + entry.getKey());
+    }
+
+    private static void incrementalResizeBoundsPutLatency(){
+        // Best of a few trials filters out GC pauses and JIT compilation, which hit both modes alike
+        long[] blocking = null, incremental = null;
+        long blockingMax = Long.MAX_VALUE, incrementalMax = Long.MAX_VALUE;
+        for(int trial = 0; trial < TRIALS; trial++){
+            long[] b = putLatencies(false), inc = putLatencies(true);
+            if(b[b.length - 1] < blockingMax){ blocking = b; blockingMax = b[b.length - 1]; }
+            if(inc[inc.length - 1] < incrementalMax){ incremental = inc; incrementalMax = inc[inc.length - 1]; }
+        }
+
+        printHistogram("stop the world resize", blocking);
+        printHistogram("incremental resize", incremental);
+
+        // The last stop the world resize rehashes PUTS/2 entries in a single put
+        check(incrementalMax < blockingMax,
+                "incremental max put latency " + incrementalMax + "ns not below stop the world " + blockingMax + "ns");
+    }
+
+    /**
+     * Sorted latencies in ns of PUTS fresh puts into a table starting from the minimum capacity.
+     * Puts during which a garbage collection ran are left out: pauses would hide the resize cost being measured
+     */
+    private static long[] putLatencies(boolean incrementalResize){
+        HashTableSepChain<Integer, Integer> table = new HashTableSepChain<>(3, 0.75, incrementalResize);
+        Integer[] keys = new Integer[PUTS];
+        for(int i = 0; i < PUTS; i++) keys[i] = i;
+
+        long[] latencies = new long[PUTS];
+        int samples = 0;
+        long collections = gcCount();
+        for(int i = 0; i < PUTS; i++){
+            long start = System.nanoTime();
+            table.put(keys[i], keys[i]);
+            long latency = System.nanoTime() - start;
+
+            // Only slow puts query the collectors, keeping the measurement loop cheap
+            if(latency > GC_CHECK_NANOS){
+                long now = gcCount();
+                if(now != collections){
+                    collections = now;
+                    continue;
+                }
+            }
+            latencies[samples++] = latency;
+        }
+        check(table.size() == PUTS, "size");
+        latencies = Arrays.copyOf(latencies, samples);
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static long gcCount(){
+        long count = 0;
+        for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) count += Math.max(0, gc.getCollectionCount());
+        return count;
+    }
+
+    private static void printHistogram(String title, long[] sorted){
+        int[] buckets = new int[64];
+        for(long latency : sorted) buckets[63 - Long.numberOfLeadingZeros(Math.max(1, latency))]++;
+
+        System.out.printf("%s: p50 %dns, p99 %dns, p99.9 %dns, p99.99 %dns, max %dns%n", title,
+                percentile(sorted, 0.5), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                percentile(sorted, 0.9999), sorted[sorted.length - 1]);
+        for(int i = 0; i < buckets.length; i++)
+            if(buckets[i] > 0) System.out.printf("  [%dns, %dns) %d%n", 1L << i, 1L << (i + 1), buckets[i]);
+    }
+
+    private static long percentile(long[] sorted, double p){
+        return sorted[(int) Math.min(sorted.length - 1, (long) (p * sorted.length))];
+    }
+}
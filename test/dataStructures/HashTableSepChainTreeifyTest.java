@@ -0,0 +1,161 @@
+package dataStructures;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import static testUtils.Checks.check;
+
+/**
+ * Checks the treeified buckets of HashTableSepChain with colliding hash codes, including keys whose compareTo
+ * is coarser than equals and keys of different classes in the same bucket, across stop the world and incremental resizes.
+ * Also prints the lookup time of colliding keys with and without treeification.
+ */
+public class HashTableSepChainTreeifyTest {
+
+    // Equal by id, hashCode shared by groups of keys, ordered by id
+    private static final class CollidingKey implements Comparable<CollidingKey> {
+        final int id, hash;
+
+        CollidingKey(int id, int groupSize){
+            this.id = id;
+            this.hash = id / groupSize;
+        }
+
+        @Override public int hashCode(){ return hash; }
+        @Override public boolean equals(Object o){ return o instanceof CollidingKey && ((CollidingKey) o).id == id; }
+        @Override public int compareTo(CollidingKey o){ return Integer.compare(id, o.id); }
+        @Override public String toString(){ return "CollidingKey" + id; }
+    }
+
+    // Equal by id, all colliding, but compareTo only looks at id / 2: keys 2k and 2k+1 tie without being equal
+    private static final class CoarseKey implements Comparable<CoarseKey> {
+        final int id;
+
+        CoarseKey(int id){ this.id = id; }
+
+        @Override public int hashCode(){ return 42; }
+        @Override public boolean equals(Object o){ return o instanceof CoarseKey && ((CoarseKey) o).id == id; }
+        @Override public int compareTo(CoarseKey o){ return Integer.compare(id / 2, o.id / 2); }
+        @Override public String toString(){ return "CoarseKey" + id; }
+    }
+
+    public static void main(String[] args){
+        bucketTreeifiesAndUntreeifies();
+        coarseCompareToKeepsBucketAChain();
+        for(boolean incrementalResize : new boolean[]{false, true}){
+            matchesHashMap(incrementalResize);
+        }
+        lookupTimeOfCollidingKeys();
+        System.out.println("OK HashTableSepChainTreeifyTest");
+    }
+
+    private static void bucketTreeifiesAndUntreeifies(){
+        Bucket<CollidingKey, Integer> bucket = new Bucket<>(8);
+        for(int i = 0; i < 8; i++) bucket.add(new Entry<>(new CollidingKey(i, 1_000), i));
+        check(!bucket.isTree(), "treeified at the threshold");
+        bucket.add(new Entry<>(new CollidingKey(8, 1_000), 8));
+        check(bucket.isTree(), "not treeified past the threshold");
+
+        for(int i = 0; i <= 8; i++){
+            Entry<CollidingKey, Integer> entry = bucket.search(new CollidingKey(i, 1_000));
+            check(entry != null && entry.value == i, "tree search " + i);
+        }
+        check(bucket.search(new CollidingKey(100, 1_000)) == null, "missing key found");
+
+        for(int i = 0; i < 5; i++) check(bucket.remove(new CollidingKey(i, 1_000)) != null, "tree remove " + i);
+        check(!bucket.isTree() && bucket.size() == 4, "not untreeified at threshold/2");
+        for(int i = 5; i <= 8; i++) check(bucket.search(new CollidingKey(i, 1_000)) != null, "lost by untreeify " + i);
+    }
+
+    private static void coarseCompareToKeepsBucketAChain(){
+        // Tie found while treeifying: the bucket stays a chain
+        Bucket<CoarseKey, Integer> bucket = new Bucket<>(4);
+        for(int i = 0; i < 20; i++) bucket.add(new Entry<>(new CoarseKey(i), i));
+        check(!bucket.isTree(), "keys tied by compareTo treeified");
+        for(int i = 0; i < 20; i++){
+            Entry<CoarseKey, Integer> entry = bucket.search(new CoarseKey(i));
+            check(entry != null && entry.value == i, "chain search " + i);
+        }
+
+        // Tie found inserting into a tree: back to a chain, keeping every key
+        bucket = new Bucket<>(4);
+        for(int i = 0; i < 20; i += 2) bucket.add(new Entry<>(new CoarseKey(i), i));
+        check(bucket.isTree(), "untied keys not treeified");
+        check(bucket.search(new CoarseKey(5)) == null, "tree hit on a tied but unequal key");
+        bucket.add(new Entry<>(new CoarseKey(5), 5));
+        check(!bucket.isTree() && bucket.size() == 11, "tied insert not moved back to a chain");
+        for(int i = 0; i < 20; i += 2) check(bucket.search(new CoarseKey(i)) != null, "lost by untreeify " + i);
+        check(bucket.search(new CoarseKey(5)).value == 5, "tied key lost");
+
+        // Blocked until it shrinks to threshold/2, then it can treeify again
+        for(int i = 0; i < 20; i += 2) bucket.remove(new CoarseKey(i));
+        for(int i = 100; i < 120; i += 2) bucket.add(new Entry<>(new CoarseKey(i), i));
+        check(bucket.isTree(), "not treeified again after shrinking");
+    }
+
+    /**
+     * Random operations against a HashMap, mixing groups of colliding keys, coarse keys and keys of another class
+     * in the same buckets. Key space grows with time so the table keeps resizing, moving trees between tables
+     */
+    private static void matchesHashMap(boolean incrementalResize){
+        HashTableSepChain<Object, Integer> table = new HashTableSepChain<>(3, 0.75, incrementalResize, 4);
+        Map<Object, Integer> expected = new HashMap<>();
+        Random random = new Random(4);
+
+        for(int i = 0; i < 300_000; i++){
+            int id = random.nextInt(1 + i / 20);
+            Object key;
+            switch (random.nextInt(4)){
+                case 0: key = new CoarseKey(id % 64); break;
+                // Integer keys share hash codes with the CollidingKey groups
+                case 1: key = id / 16; break;
+                default: key = new CollidingKey(id, 16);
+            }
+
+            switch (random.nextInt(3)){
+                case 0:
+                    table.put(key, i);
+                    expected.put(key, i);
+                    check(Integer.valueOf(i).equals(table.get(key)), "put " + key);
+                    break;
+                case 1: check(Objects.equals(table.get(key), expected.get(key)), "get " + key); break;
+                default: check(Objects.equals(table.remove(key), expected.remove(key)), "remove " + key);
+            }
+            check(table.size() == expected.size(), "size after op " + i);
+        }
+
+        for(Map.Entry<Object, Integer> entry : expected.entrySet())
+            check(entry.getValue().equals(table.get(entry.getKey())), "final get " + entry.getKey());
+    }
+
+    private static void lookupTimeOfCollidingKeys(){
+        int keys = 2_000, lookups = 200_000;
+        CollidingKey[] colliding = new CollidingKey[keys];
+        for(int i = 0; i < keys; i++) colliding[i] = new CollidingKey(i, keys);
+
+        long treeNanos = Long.MAX_VALUE, chainNanos = Long.MAX_VALUE;
+        for(int trial = 0; trial < 3; trial++){
+            treeNanos = Math.min(treeNanos, timeLookups(new HashTableSepChain<>(16, 0.75, false, 8), colliding, lookups));
+            chainNanos = Math.min(chainNanos, timeLookups(new HashTableSepChain<>(16, 0.75, false, Integer.MAX_VALUE), colliding, lookups));
+        }
+
+        System.out.printf("%d keys with the same hash: treeified %.1f ns/get, plain chain %.1f ns/get%n",
+                keys, (double) treeNanos / lookups, (double) chainNanos / lookups);
+        // ~11 comparisons against ~1000 on average
+        check(treeNanos * 5 < chainNanos, "treeified lookups not faster than a plain chain");
+    }
+
+    private static long timeLookups(HashTableSepChain<CollidingKey, Integer> table, CollidingKey[] keys, int lookups){
+        for(int i = 0; i < keys.length; i++) table.put(keys[i], i);
+        Random random = new Random(44);
+
+        long start = System.nanoTime();
+        for(int i = 0; i < lookups; i++){
+            int k = random.nextInt(keys.length);
+            check(table.get(keys[k]) == k, "get");
+        }
+        return System.nanoTime() - start;
+    }
+}
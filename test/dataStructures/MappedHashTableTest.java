@@ -0,0 +1,280 @@
+package dataStructures;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static testUtils.Checks.check;
+
+/**
+ * Persistence and crash consistency checks of MappedHashTable on files in a temporary directory.
+ * Crashes are simulated by copying the file of a table still open, i.e. what is on disk if the process dies at that point,
+ * and by damaging the copy the way an interrupted write would.
+ */
+public class MappedHashTableTest {
+
+    // Header and slot layout, see the file layout in MappedHashTable
+    private static final int H_MAGIC = 0, H_SIZE = 20, H_USED = 24, H_DIRTY = 28;
+    private static final int HEADER_SIZE = 32, S_KEY = 11;
+    private static final byte FULL = 1, DELETED = 2;
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("mapped-hash-table-test");
+        try {
+            randomOperationsSurviveReopen(dir);
+            crashedTableRecountsOnReopen(dir);
+            crashDuringOverwriteKeepsAWholeValue(dir);
+            truncatedFileIsRejected(dir);
+            leftoverResizeFileIsIgnored(dir);
+        } finally {
+            try(Stream<Path> files = Files.walk(dir)){
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+        System.out.println("OK MappedHashTableTest");
+    }
+
+    // Random puts, overwrites and removes against a HashMap, closing and reopening the file along the way.
+    // Starting from a tiny capacity the file is grown and remapped several times
+    private static void randomOperationsSurviveReopen(Path dir) throws IOException {
+        Path file = dir.resolve("random.mht");
+        Map<String, byte[]> expected = new HashMap<>();
+        Random random = new Random(5);
+        MappedHashTable table = new MappedHashTable(file, 0, 16, 32);
+
+        for(int i = 0; i < 50_000; i++){
+            String key = "key" + random.nextInt(5_000);
+            if(random.nextInt(3) != 0){
+                byte[] value = value(random);
+                byte[] previous = table.put(key, value);
+                check(Arrays.equals(previous, expected.put(key, value)), "put " + key);
+            } else {
+                check(Arrays.equals(table.remove(key), expected.remove(key)), "remove " + key);
+            }
+
+            if(i % 10_000 == 9_999){
+                table.close();
+                table = new MappedHashTable(file);
+                checkContent(table, expected);
+            }
+        }
+        table.close();
+    }
+
+    private static void crashedTableRecountsOnReopen(Path dir) throws IOException {
+        Path file = dir.resolve("crash.mht"), crashed = dir.resolve("crash-copy.mht");
+        Map<String, byte[]> expected = new HashMap<>();
+        Random random = new Random(6);
+
+        try(MappedHashTable table = new MappedHashTable(file, 1_000, 16, 32)){
+            for(int i = 0; i < 500; i++){
+                String key = "key" + i;
+                byte[] value = value(random);
+                table.put(key, value);
+                expected.put(key, value);
+            }
+            table.flush();
+            Files.copy(file, crashed);
+        }
+
+        // The copy was taken while the table was open: it must be flagged dirty
+        check(readHeaderByte(crashed, H_DIRTY) != 0, "open table not flagged dirty");
+        // Crash between a slot commit and the counters update: counters on disk are stale
+        writeHeaderInt(crashed, H_SIZE, 3);
+        writeHeaderInt(crashed, H_USED, 3);
+
+        try(MappedHashTable table = new MappedHashTable(crashed)){
+            check(table.size() == expected.size(), "size not recomputed after crash: " + table.size());
+            checkContent(table, expected);
+            // Later inserts must see the recomputed used counter, or probing could loop on a full table
+            for(int i = 500; i < 2_000; i++){
+                String key = "key" + i;
+                byte[] value = value(random);
+                table.put(key, value);
+                expected.put(key, value);
+            }
+            checkContent(table, expected);
+        }
+
+        // A clean close clears the flag and persists the counters
+        check(readHeaderByte(crashed, H_DIRTY) == 0, "dirty flag not cleared by close");
+        try(MappedHashTable table = new MappedHashTable(crashed)){
+            checkContent(table, expected);
+        }
+    }
+
+    /**
+     * Snapshots the file before and after overwriting a key, then rebuilds the two intermediate states a crash can leave:
+     * the new slot not committed yet, and the new slot committed with the old one not tombstoned yet.
+     * Reopening either must give back one whole value of the key, and a single copy of it
+     */
+    private static void crashDuringOverwriteKeepsAWholeValue(Path dir) throws IOException {
+        int maxKeyBytes = 16, maxValueBytes = 32, slotSize = S_KEY + maxKeyBytes + maxValueBytes;
+        Path file = dir.resolve("overwrite.mht"), before = dir.resolve("overwrite-before.mht"), after = dir.resolve("overwrite-after.mht");
+        byte[] oldValue = "old value of the key".getBytes(StandardCharsets.UTF_8);
+        byte[] newValue = "new, longer value of the key!".getBytes(StandardCharsets.UTF_8);
+
+        try(MappedHashTable table = new MappedHashTable(file, 100, maxKeyBytes, maxValueBytes)){
+            for(int i = 0; i < 20; i++) table.put("other" + i, new byte[]{(byte) i});
+            table.put("key", oldValue);
+            // Leave some tombstones around, the new copy may land before or after the old one
+            for(int i = 0; i < 20; i += 3) table.remove("other" + i);
+            table.flush();
+            Files.copy(file, before);
+
+            check(Arrays.equals(table.put("key", newValue), oldValue), "overwrite returned the wrong previous value");
+            table.flush();
+            Files.copy(file, after);
+        }
+
+        // The overwrite changes exactly two state bytes: the new slot becomes FULL and the old one DELETED
+        byte[] b = Files.readAllBytes(before), a = Files.readAllBytes(after);
+        int newSlot = -1, oldSlot = -1;
+        for(int slot = 0; HEADER_SIZE + (slot + 1) * slotSize <= a.length; slot++){
+            int state = HEADER_SIZE + slot * slotSize;
+            if(b[state] != FULL && a[state] == FULL) newSlot = slot;
+            if(b[state] == FULL && a[state] == DELETED) oldSlot = slot;
+        }
+        check(newSlot >= 0 && oldSlot >= 0 && newSlot != oldSlot, "overwrite was done in place");
+        // Only the state byte of the old slot changes: no torn value is possible
+        for(int i = 1; i < slotSize; i++)
+            check(a[HEADER_SIZE + oldSlot * slotSize + i] == b[HEADER_SIZE + oldSlot * slotSize + i], "old slot modified");
+
+        // Crash before the new slot commit: the old value is still there
+        byte[] uncommitted = a.clone();
+        uncommitted[HEADER_SIZE + newSlot * slotSize] = b[HEADER_SIZE + newSlot * slotSize];
+        uncommitted[HEADER_SIZE + oldSlot * slotSize] = FULL;
+        checkAfterCrash(dir.resolve("overwrite-uncommitted.mht"), uncommitted, oldValue);
+
+        // Crash after the commit, before the tombstone: both copies are whole, either may win but only one survives
+        byte[] committed = a.clone();
+        committed[HEADER_SIZE + oldSlot * slotSize] = FULL;
+        checkAfterCrash(dir.resolve("overwrite-committed.mht"), committed, null);
+
+        checkAfterCrash(dir.resolve("overwrite-done.mht"), a, newValue);
+    }
+
+    // expected null accepts either the old or the new value of "key"
+    private static void checkAfterCrash(Path file, byte[] content, byte[] expected) throws IOException {
+        Files.write(file, content);
+        byte[] value;
+        try(MappedHashTable table = new MappedHashTable(file)){
+            value = table.get("key");
+            check(value != null, "key lost after crash");
+            check(expected == null ? value.length == 20 || value.length == 29 : Arrays.equals(value, expected),
+                    "unexpected value after crash " + new String(value, StandardCharsets.UTF_8));
+            // 13 others left, plus the key
+            check(table.size() == 14, "size after crash " + table.size());
+            check(table.remove("key") != null && table.get("key") == null, "a second copy of the key survived the crash");
+        }
+        try(MappedHashTable table = new MappedHashTable(file)){
+            check(table.get("key") == null && table.size() == 13, "removed key came back after reopen");
+        }
+    }
+
+    private static void truncatedFileIsRejected(Path dir) throws IOException {
+        Path file = dir.resolve("truncated.mht");
+        try(MappedHashTable table = new MappedHashTable(file, 100, 16, 32)){
+            table.put("a", new byte[]{1});
+        }
+        long length = Files.size(file);
+
+        // Partially written file: last slot missing
+        truncate(file, length - 1);
+        expectCorrupted(file, "last byte truncated");
+        // Header only partially written
+        truncate(file, 10);
+        expectCorrupted(file, "header truncated");
+        truncate(file, 0);
+        expectCorrupted(file, "empty file");
+
+        Path garbage = dir.resolve("garbage.mht");
+        try(MappedHashTable table = new MappedHashTable(garbage, 100, 16, 32)){
+            table.put("a", new byte[]{1});
+        }
+        writeHeaderInt(garbage, H_MAGIC, 0xBADBAD);
+        expectCorrupted(garbage, "bad magic number");
+    }
+
+    // A crash in the middle of a resize leaves the temporary file behind, next to the untouched table
+    private static void leftoverResizeFileIsIgnored(Path dir) throws IOException {
+        Path file = dir.resolve("resize.mht");
+        Map<String, byte[]> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        try(MappedHashTable table = new MappedHashTable(file, 0, 16, 32)){
+            for(int i = 0; i < 10; i++){
+                byte[] value = value(random);
+                table.put("key" + i, value);
+                expected.put("key" + i, value);
+            }
+        }
+        Files.write(dir.resolve("resize.mht.resize"), new byte[]{1, 2, 3});
+
+        try(MappedHashTable table = new MappedHashTable(file)){
+            checkContent(table, expected);
+            // Enough inserts to grow the table, replacing the leftover file
+            for(int i = 10; i < 1_000; i++){
+                byte[] value = value(random);
+                table.put("key" + i, value);
+                expected.put("key" + i, value);
+            }
+            checkContent(table, expected);
+        }
+        check(!Files.exists(dir.resolve("resize.mht.resize")), "temporary resize file left behind");
+    }
+
+
+    private static void checkContent(MappedHashTable table, Map<String, byte[]> expected){
+        check(table.size() == expected.size(), "size " + table.size() + " expected " + expected.size());
+        for(Map.Entry<String, byte[]> entry : expected.entrySet())
+            check(Arrays.equals(table.get(entry.getKey()), entry.getValue()), "get " + entry.getKey());
+    }
+
+    private static byte[] value(Random random){
+        byte[] value = ("v" + random.nextInt()).getBytes(StandardCharsets.UTF_8);
+        return Arrays.copyOf(value, 1 + random.nextInt(value.length));
+    }
+
+    private static void expectCorrupted(Path file, String what) {
+        try {
+            new MappedHashTable(file).close();
+        } catch (IOException e) {
+            check(e.getMessage().contains("Corrupted or truncated"), what + ": unexpected message " + e.getMessage());
+            return;
+        }
+        throw new AssertionError(what + ": file opened without errors");
+    }
+
+    private static void truncate(Path file, long length) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)){
+            channel.truncate(length);
+        }
+    }
+
+    private static byte readHeaderByte(Path file, int offset) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, offset);
+            return b.get(0);
+        }
+    }
+
+    // Same byte order as MappedByteBuffer, big endian
+    private static void writeHeaderInt(Path file, int offset, int value) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)){
+            ByteBuffer b = ByteBuffer.allocate(4).putInt(0, value);
+            channel.write(b, offset);
+        }
+    }
+}
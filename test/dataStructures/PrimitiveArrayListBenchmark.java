@@ -0,0 +1,70 @@
+package dataStructures;
+
+import java.lang.management.ManagementFactory;
+
+import static testUtils.Checks.bestOf;
+import static testUtils.Checks.check;
+
+/**
+ * Prints time and allocated bytes of IntArrayList against DynamicArray<Integer> filling and summing 10M elements.
+ * Values are outside the Integer cache, so every boxed add allocates.
+ */
+public class PrimitiveArrayListBenchmark {
+
+    private static final int N = 10_000_000, TRIALS = 3, OFFSET = 1 << 20;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long sink;
+
+    public static void main(String[] args){
+        long expectedSum = (long) N * OFFSET + (long) N * (N - 1) / 2;
+
+        long intAdd = bestOf(TRIALS, () -> fillInts());
+        long boxedAdd = bestOf(TRIALS, () -> fillBoxed());
+        long intBytes = allocatedBy(() -> fillInts());
+        long boxedBytes = allocatedBy(() -> fillBoxed());
+
+        IntArrayList ints = fillInts();
+        DynamicArray<Integer> boxed = fillBoxed();
+        long intSum = bestOf(TRIALS, () -> {
+            long sum = 0;
+            for(int i = 0; i < ints.size(); i++) sum += ints.get(i);
+            check(sum == expectedSum, "IntArrayList sum");
+        });
+        long boxedSum = bestOf(TRIALS, () -> {
+            long sum = 0;
+            for(int i = 0; i < boxed.size(); i++) sum += boxed.get(i);
+            check(sum == expectedSum, "DynamicArray sum");
+        });
+
+        System.out.printf("%d elements, IntArrayList vs DynamicArray<Integer>:%n", N);
+        System.out.printf("  add        %6.1f ms vs %6.1f ms%n", intAdd / 1e6, boxedAdd / 1e6);
+        System.out.printf("  get + sum  %6.1f ms vs %6.1f ms%n", intSum / 1e6, boxedSum / 1e6);
+        System.out.printf("  allocated  %6.1f MB vs %6.1f MB%n", intBytes / 1e6, boxedBytes / 1e6);
+        check(intBytes < boxedBytes, "IntArrayList allocated more than DynamicArray<Integer>");
+        System.out.println("OK PrimitiveArrayListBenchmark");
+    }
+
+    private static IntArrayList fillInts(){
+        IntArrayList list = new IntArrayList();
+        for(int i = 0; i < N; i++) list.add(OFFSET + i);
+        sink += list.size();
+        return list;
+    }
+
+    private static DynamicArray<Integer> fillBoxed(){
+        DynamicArray<Integer> list = new DynamicArray<>();
+        for(int i = 0; i < N; i++) list.add(OFFSET + i);
+        sink += list.size();
+        return list;
+    }
+
+    private static long allocatedBy(Runnable run){
+        long tid = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(tid);
+        run.run();
+        return THREADS.getThreadAllocatedBytes(tid) - before;
+    }
+}
@@ -0,0 +1,151 @@
+package dataStructures.stacksAndQueues;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import static testUtils.Checks.check;
+
+/**
+ * Checks ArrayQueue and ArrayStack against ArrayDeque, including bounded mode with capacities which are not
+ * powers of two. Prints the throughput of both against the DLList based Queue and Stack (informative only).
+ */
+public class ArrayQueueStackTest {
+
+    public static void main(String[] args){
+        boundedQueueKeepsCallerCapacity();
+        boundedStackKeepsCallerCapacity();
+        queueMatchesArrayDeque();
+        stackMatchesArrayDeque();
+        throughputAgainstLinkedVersions();
+        System.out.println("OK ArrayQueueStackTest");
+    }
+
+    private static void boundedQueueKeepsCallerCapacity(){
+        for(int capacity : new int[]{1, 5, 8, 100}){
+            ArrayQueue<Integer> queue = new ArrayQueue<>(capacity, true);
+            // Several rounds move head and tail around the buffer
+            for(int round = 0; round < 3; round++){
+                for(int i = 0; i < capacity; i++) check(queue.offer(i), "offer below capacity " + capacity);
+                check(queue.isFull() && queue.size() == capacity && queue.capacity() == capacity, "full at " + capacity);
+                check(!queue.offer(-1), "bounded queue of capacity " + capacity + " accepted an extra element");
+
+                boolean thrown = false;
+                try { queue.enqueue(-1); } catch (IllegalStateException e) { thrown = true; }
+                check(thrown, "enqueue on a full queue did not throw");
+
+                for(int i = 0; i < capacity; i++) check(queue.dequeue() == i, "FIFO order");
+                check(queue.isEmpty() && !queue.isFull(), "empty");
+                queue.offer(0);
+                queue.dequeue();
+            }
+        }
+
+        ArrayQueue<Integer> unbounded = new ArrayQueue<>(5, false);
+        for(int i = 0; i < 1_000; i++) unbounded.enqueue(i);
+        check(unbounded.size() == 1_000 && !unbounded.isFull(), "unbounded queue did not grow");
+    }
+
+    private static void boundedStackKeepsCallerCapacity(){
+        for(int capacity : new int[]{1, 5, 8, 100}){
+            ArrayStack<Integer> stack = new ArrayStack<>(capacity, true);
+            for(int i = 0; i < capacity; i++) stack.push(i);
+            check(stack.isFull() && stack.size() == capacity, "full at " + capacity);
+
+            boolean thrown = false;
+            try { stack.push(-1); } catch (IllegalStateException e) { thrown = true; }
+            check(thrown, "bounded stack of capacity " + capacity + " accepted an extra element");
+
+            for(int i = capacity - 1; i >= 0; i--) check(stack.pop() == i, "LIFO order");
+            check(stack.isEmpty() && !stack.isFull(), "empty");
+        }
+
+        ArrayStack<Integer> unbounded = new ArrayStack<>(5, false);
+        for(int i = 0; i < 1_000; i++) unbounded.push(i);
+        check(unbounded.size() == 1_000 && !unbounded.isFull(), "unbounded stack did not grow");
+    }
+
+    private static void queueMatchesArrayDeque(){
+        ArrayQueue<Integer> queue = new ArrayQueue<>(3, false);
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+        Random random = new Random(14);
+
+        for(int i = 0; i < 500_000; i++){
+            // Biased towards enqueue so that the queue grows while wrapping around
+            if(expected.isEmpty() || random.nextInt(5) < 3){
+                queue.enqueue(i);
+                expected.addLast(i);
+            } else {
+                check(queue.peek().equals(expected.peekFirst()), "peek");
+                check(queue.dequeue().equals(expected.pollFirst()), "dequeue");
+            }
+            check(queue.size() == expected.size(), "size");
+        }
+        queue.clear();
+        check(queue.isEmpty() && queue.peek() == null, "clear");
+    }
+
+    private static void stackMatchesArrayDeque(){
+        ArrayStack<Integer> stack = new ArrayStack<>(3, false);
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+        Random random = new Random(15);
+
+        for(int i = 0; i < 500_000; i++){
+            if(expected.isEmpty() || random.nextInt(5) < 3){
+                stack.push(i);
+                expected.push(i);
+            } else {
+                check(stack.peek().equals(expected.peek()), "peek");
+                check(stack.pop().equals(expected.pop()), "pop");
+            }
+            check(stack.size() == expected.size(), "size");
+        }
+        stack.clear();
+        check(stack.isEmpty() && stack.peek() == null, "clear");
+    }
+
+    private static void throughputAgainstLinkedVersions(){
+        int rounds = 200, batch = 10_000;
+        Integer[] values = new Integer[batch];
+        for(int i = 0; i < batch; i++) values[i] = i;
+
+        // Each timed run fills and empties the structure rounds times, best of 3 to skip warm up
+        long arrayQueue = Long.MAX_VALUE, linkedQueue = Long.MAX_VALUE, arrayStack = Long.MAX_VALUE, linkedStack = Long.MAX_VALUE;
+        for(int trial = 0; trial < 3; trial++){
+            ArrayQueue<Integer> aq = new ArrayQueue<>();
+            long start = System.nanoTime();
+            for(int r = 0; r < rounds; r++){
+                for(Integer v : values) aq.enqueue(v);
+                for(int i = 0; i < batch; i++) aq.dequeue();
+            }
+            arrayQueue = Math.min(arrayQueue, System.nanoTime() - start);
+
+            Queue<Integer> lq = new Queue<>();
+            start = System.nanoTime();
+            for(int r = 0; r < rounds; r++){
+                for(Integer v : values) lq.enqueue(v);
+                for(int i = 0; i < batch; i++) lq.dequeue();
+            }
+            linkedQueue = Math.min(linkedQueue, System.nanoTime() - start);
+
+            ArrayStack<Integer> as = new ArrayStack<>();
+            start = System.nanoTime();
+            for(int r = 0; r < rounds; r++){
+                for(Integer v : values) as.push(v);
+                for(int i = 0; i < batch; i++) as.pop();
+            }
+            arrayStack = Math.min(arrayStack, System.nanoTime() - start);
+
+            Stack<Integer> ls = new Stack<>();
+            start = System.nanoTime();
+            for(int r = 0; r < rounds; r++){
+                for(Integer v : values) ls.push(v);
+                for(int i = 0; i < batch; i++) ls.pop();
+            }
+            linkedStack = Math.min(linkedStack, System.nanoTime() - start);
+        }
+
+        double ops = 2.0 * rounds * batch;
+        System.out.printf("queue: ArrayQueue %.1f Mops/s, DLList Queue %.1f Mops/s%n", ops * 1e3 / arrayQueue, ops * 1e3 / linkedQueue);
+        System.out.printf("stack: ArrayStack %.1f Mops/s, DLList Stack %.1f Mops/s%n", ops * 1e3 / arrayStack, ops * 1e3 / linkedStack);
+    }
+}
@@ -0,0 +1,151 @@
+package dataStructures.stacksAndQueues;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static testUtils.Checks.check;
+import static testUtils.Checks.runConcurrently;
+
+/**
+ * Stress test of SpscQueue and MpmcQueue, run as a plain main.
+ * Small capacities keep the queues wrapping around and switching between full and empty all the time.
+ */
+public class BoundedQueuesTest {
+
+    public static void main(String[] args){
+        sequentialBounds();
+        spscDeliversEverythingInOrder();
+        mpmcDeliversEverythingOnce(4, 4);
+        mpmcDeliversEverythingOnce(1, 6);
+        mpmcDeliversEverythingOnce(6, 1);
+        System.out.println("OK BoundedQueuesTest");
+    }
+
+    private static void sequentialBounds(){
+        SpscQueue<Integer> spsc = new SpscQueue<>(5);
+        MpmcQueue<Integer> mpmc = new MpmcQueue<>(5);
+        check(spsc.capacity() == 8 && mpmc.capacity() == 8, "capacity not rounded up to a power of two");
+
+        for(int i = 0; i < 8; i++) check(spsc.offer(i) && mpmc.offer(i), "offer below capacity");
+        check(!spsc.offer(8) && !mpmc.offer(8), "offer on a full queue");
+        check(spsc.size() == 8 && mpmc.size() == 8, "size of a full queue");
+
+        check(spsc.peek() == 0 && spsc.poll() == 0 && mpmc.poll() == 0, "FIFO order");
+        List<Integer> out = new ArrayList<>();
+        check(spsc.drainTo(out, 3) == 3 && mpmc.drainTo(out, 3) == 3, "drainTo with limit");
+        check(out.equals(List.of(1, 2, 3, 1, 2, 3)), "drainTo order " + out);
+
+        Integer[] batch = {10, 11, 12, 13, 14, 15};
+        check(spsc.offerBatch(batch, 0, 6) == 4 && mpmc.offerBatch(batch, 0, 6) == 4, "offerBatch stops when full");
+        out.clear();
+        check(spsc.drainTo(out, 100) == 8 && mpmc.drainTo(out, 100) == 8, "drainTo everything");
+        check(out.equals(List.of(4, 5, 6, 7, 10, 11, 12, 13, 4, 5, 6, 7, 10, 11, 12, 13)), "wrapped order " + out);
+        check(spsc.isEmpty() && mpmc.isEmpty() && spsc.poll() == null && mpmc.poll() == null && spsc.peek() == null, "empty");
+    }
+
+    // The consumer must see exactly 0, 1, 2, ... whichever mix of single and batch operations both sides use
+    private static void spscDeliversEverythingInOrder(){
+        int total = 2_000_000;
+        SpscQueue<Integer> queue = new SpscQueue<>(64);
+
+        runConcurrently(2, 60, t -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if(t == 0){
+                Integer[] batch = new Integer[16];
+                int next = 0;
+                while(next < total){
+                    if(random.nextBoolean()){
+                        if(queue.offer(next)) next++;
+                        else Thread.yield();
+                    } else {
+                        int count = Math.min(1 + random.nextInt(batch.length), total - next);
+                        for(int i = 0; i < count; i++) batch[i] = next + i;
+                        int offered = queue.offerBatch(batch, 0, count);
+                        if(offered == 0) Thread.yield();
+                        next += offered;
+                    }
+                }
+            } else {
+                int[] expected = {0};
+                while(expected[0] < total){
+                    int choice = random.nextInt(3);
+                    if(choice == 0){
+                        Integer peeked = queue.peek();
+                        Integer elem = queue.poll();
+                        if(elem == null){
+                            Thread.yield();
+                            continue;
+                        }
+                        check(peeked == null || peeked.equals(elem), "peek " + peeked + " then poll " + elem);
+                        check(elem == expected[0]++, "out of order " + elem);
+                    } else {
+                        int drained = queue.drainTo(elem -> check(elem == expected[0]++, "out of order " + elem),
+                                1 + random.nextInt(32));
+                        if(drained == 0) Thread.yield();
+                    }
+                }
+                check(queue.poll() == null, "element after the last one");
+            }
+        });
+    }
+
+    /**
+     * Each element encodes its producer and sequence number: every element must be consumed exactly once and
+     * a consumer must see the elements of each producer in increasing order, as the queue is FIFO
+     */
+    private static void mpmcDeliversEverythingOnce(int producers, int consumers){
+        int perProducer = 300_000;
+        MpmcQueue<Long> queue = new MpmcQueue<>(32);
+        AtomicIntegerArray seen = new AtomicIntegerArray(producers * perProducer);
+        AtomicLong consumed = new AtomicLong();
+        long total = (long) producers * perProducer;
+
+        runConcurrently(producers + consumers, 120, t -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if(t < producers){
+                Long[] batch = new Long[8];
+                int next = 0;
+                while(next < perProducer){
+                    int count = Math.min(random.nextBoolean() ? 1 : 1 + random.nextInt(batch.length), perProducer - next);
+                    for(int i = 0; i < count; i++) batch[i] = ((long) t << 32) | (next + i);
+                    int offered = count == 1 ? (queue.offer(batch[0]) ? 1 : 0) : queue.offerBatch(batch, 0, count);
+                    if(offered == 0) Thread.yield();
+                    next += offered;
+                }
+            } else {
+                int[] lastSeq = new int[producers];
+                Arrays.fill(lastSeq, -1);
+                List<Long> drained = new ArrayList<>();
+                while(consumed.get() < total){
+                    drained.clear();
+                    if(random.nextBoolean()){
+                        Long elem = queue.poll();
+                        if(elem != null) drained.add(elem);
+                    } else {
+                        queue.drainTo(drained, 1 + random.nextInt(16));
+                    }
+                    if(drained.isEmpty()){
+                        Thread.yield();
+                        continue;
+                    }
+
+                    for(long elem : drained){
+                        int producer = (int) (elem >>> 32), seq = (int) elem;
+                        check(seq > lastSeq[producer], "producer " + producer + " order: " + seq + " after " + lastSeq[producer]);
+                        lastSeq[producer] = seq;
+                        check(seen.incrementAndGet(producer * perProducer + seq) == 1, "duplicated " + producer + ":" + seq);
+                    }
+                    consumed.addAndGet(drained.size());
+                }
+            }
+        });
+
+        check(consumed.get() == total, "consumed " + consumed.get() + " of " + total);
+        for(int i = 0; i < seen.length(); i++) check(seen.get(i) == 1, "lost element " + (i / perProducer) + ":" + (i % perProducer));
+        check(queue.isEmpty() && queue.poll() == null, "queue not empty");
+    }
+}
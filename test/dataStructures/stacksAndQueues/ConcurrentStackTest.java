@@ -0,0 +1,182 @@
+package dataStructures.stacksAndQueues;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static testUtils.Checks.check;
+import static testUtils.Checks.runConcurrently;
+import static testUtils.Checks.stressThreads;
+
+/**
+ * Stress and linearizability test of ConcurrentStack, with and without the elimination array, run as a plain main.
+ * Also prints push/pop throughput at 1 to 16 threads against the DLList based Stack behind a global lock (informative only).
+ */
+public class ConcurrentStackTest {
+
+    public static void main(String[] args){
+        sequentialLifo();
+        for(int eliminationSlots : new int[]{0, 4}){
+            concurrentPushPopLosesNothing(eliminationSlots);
+            shortHistoriesAreLinearizable(eliminationSlots);
+        }
+        throughputScaling();
+        System.out.println("OK ConcurrentStackTest");
+    }
+
+    private static void sequentialLifo(){
+        ConcurrentStack<Integer> stack = new ConcurrentStack<>(2);
+        check(stack.isEmpty() && stack.tryPop() == null, "new stack not empty");
+        for(int i = 0; i < 100; i++) stack.push(i);
+        for(int i = 99; i >= 0; i--) check(stack.pop() == i, "LIFO order");
+        check(stack.isEmpty(), "stack not empty");
+
+        boolean thrown = false;
+        try { stack.pop(); } catch (RuntimeException e) { thrown = true; }
+        check(thrown, "pop on an empty stack did not throw");
+    }
+
+    // Threads push unique values and pop randomly: all values must come out exactly once, counting the final drain
+    private static void concurrentPushPopLosesNothing(int eliminationSlots){
+        int threads = stressThreads(), perThread = 200_000;
+        ConcurrentStack<Integer> stack = new ConcurrentStack<>(eliminationSlots);
+        AtomicIntegerArray popped = new AtomicIntegerArray(threads * perThread);
+
+        runConcurrently(threads, 60, t -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int pushed = 0;
+            while(pushed < perThread){
+                if(random.nextBoolean()){
+                    stack.push(t * perThread + pushed++);
+                } else {
+                    Integer value = stack.tryPop();
+                    if(value != null) check(popped.incrementAndGet(value) == 1, "popped twice " + value);
+                }
+            }
+        });
+
+        Integer value;
+        while((value = stack.tryPop()) != null) check(popped.incrementAndGet(value) == 1, "popped twice " + value);
+        for(int i = 0; i < popped.length(); i++) check(popped.get(i) == 1, "lost " + i);
+    }
+
+
+    private static void throughputScaling(){
+        int opsPerThread = 1_000_000;
+        System.out.println("push/pop pairs on " + Runtime.getRuntime().availableProcessors() + " cores:");
+
+        for(int threads : new int[]{1, 2, 4, 8, 16}){
+            ConcurrentStack<Integer> treiber = new ConcurrentStack<>();
+            long treiberNanos = timePairs(threads, opsPerThread, treiber::push, treiber::tryPop);
+
+            ConcurrentStack<Integer> eliminating = new ConcurrentStack<>(Math.max(1, threads / 2));
+            long eliminatingNanos = timePairs(threads, opsPerThread, eliminating::push, eliminating::tryPop);
+
+            Stack<Integer> plain = new Stack<>();
+            Object lock = new Object();
+            long lockedNanos = timePairs(threads, opsPerThread,
+                    v -> { synchronized (lock){ plain.push(v); } },
+                    () -> { synchronized (lock){ return plain.isEmpty() ? null : plain.pop(); } });
+
+            double totalOps = (double) threads * opsPerThread;
+            System.out.printf("%2d threads: Treiber %.1f Mops/s, elimination %.1f Mops/s, global lock %.1f Mops/s%n", threads,
+                    totalOps * 1e3 / treiberNanos, totalOps * 1e3 / eliminatingNanos, totalOps * 1e3 / lockedNanos);
+        }
+    }
+
+    // Each thread alternates push and pop: pops hit a stack which is almost always non empty yet contended on its top
+    private static long timePairs(int threads, int opsPerThread, Consumer<Integer> push, Supplier<Integer> pop){
+        Integer value = 42;
+        long start = System.nanoTime();
+        runConcurrently(threads, 120, t -> {
+            for(int i = 0; i < opsPerThread; i += 2){
+                push.accept(value);
+                pop.get();
+            }
+        });
+        return System.nanoTime() - start;
+    }
+
+
+    private static final int HISTORY_THREADS = 3, HISTORY_OPS = 4, HISTORIES = 3_000;
+
+    // A push of value, or a tryPop returning value (-1 for null), with the time interval in which it took effect
+    private static final class Op {
+        final boolean push;
+        final int value;
+        final long invocation, response;
+
+        Op(boolean push, int value, long invocation, long response){
+            this.push = push;
+            this.value = value;
+            this.invocation = invocation;
+            this.response = response;
+        }
+    }
+
+    /**
+     * Records many short concurrent histories and checks each one has a sequential ordering which respects real time
+     * (an operation returned before another started comes first) and is legal for a stack.
+     * Timestamps are taken outside the calls, which only widens the intervals: the check may miss bugs, never invent them
+     */
+    private static void shortHistoriesAreLinearizable(int eliminationSlots){
+        for(int h = 0; h < HISTORIES; h++){
+            ConcurrentStack<Integer> stack = new ConcurrentStack<>(eliminationSlots);
+            List<Op> history = new ArrayList<>();
+
+            runConcurrently(HISTORY_THREADS, 10, t -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<Op> ops = new ArrayList<>();
+                for(int i = 0; i < HISTORY_OPS; i++){
+                    boolean push = random.nextBoolean();
+                    int value = t * HISTORY_OPS + i;
+                    long invocation = System.nanoTime();
+                    if(push){
+                        stack.push(value);
+                    } else {
+                        Integer result = stack.tryPop();
+                        value = result == null ? -1 : result;
+                    }
+                    ops.add(new Op(push, value, invocation, System.nanoTime()));
+                }
+                synchronized (history){ history.addAll(ops); }
+            });
+
+            check(linearizable(history, (1 << history.size()) - 1, new int[history.size()], 0),
+                    "history " + h + " not linearizable");
+        }
+    }
+
+    // Depth first search over the operations which can go next, stack holds the model stack state
+    private static boolean linearizable(List<Op> history, int remaining, int[] stack, int depth){
+        if(remaining == 0) return true;
+
+        for(int i = 0; i < history.size(); i++){
+            if((remaining & (1 << i)) == 0) continue;
+            Op op = history.get(i);
+            if(!canGoNext(history, remaining, op)) continue;
+
+            if(op.push){
+                stack[depth] = op.value;
+                if(linearizable(history, remaining & ~(1 << i), stack, depth + 1)) return true;
+            } else if(op.value == -1){
+                if(depth == 0 && linearizable(history, remaining & ~(1 << i), stack, depth)) return true;
+            } else if(depth > 0 && stack[depth - 1] == op.value){
+                if(linearizable(history, remaining & ~(1 << i), stack, depth - 1)) return true;
+                stack[depth - 1] = op.value;
+            }
+        }
+        return false;
+    }
+
+    // No other remaining operation completed before op started
+    private static boolean canGoNext(List<Op> history, int remaining, Op op){
+        for(int j = 0; j < history.size(); j++){
+            if((remaining & (1 << j)) != 0 && history.get(j).response < op.invocation) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,157 @@
+package dataStructures.stacksAndQueues;
+
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static testUtils.Checks.check;
+import static testUtils.Checks.runConcurrently;
+import static testUtils.Checks.stressThreads;
+
+/**
+ * Checks MultiQueue: exact with a single shard, no lost nor duplicated elements under concurrent add/poll,
+ * and a bounded rank error of polled elements with several shards. Run as a plain main.
+ * Also prints the throughput of a mixed add/poll workload against PQueue behind a single lock (informative only).
+ */
+public class MultiQueueTest {
+
+    public static void main(String[] args){
+        singleShardIsExact();
+        // A single shard keeps every add contended, exercising the blocking fallback
+        concurrentAddPollLosesNothing(1);
+        concurrentAddPollLosesNothing(8);
+        relaxedPollStaysCloseToMinimum();
+        throughputAgainstSynchronizedPQueue();
+        System.out.println("OK MultiQueueTest");
+    }
+
+    private static void singleShardIsExact(){
+        MultiQueue<Integer> queue = new MultiQueue<>(1);
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        Random random = new Random(23);
+
+        for(int i = 0; i < 200_000; i++){
+            if(random.nextInt(3) != 0){
+                int elem = random.nextInt(10_000);
+                queue.add(elem);
+                expected.add(elem);
+            } else {
+                check(Objects.equals(queue.peek(), expected.peek()), "peek");
+                check(Objects.equals(queue.poll(), expected.poll()), "poll");
+            }
+            check(queue.size() == expected.size(), "size");
+        }
+    }
+
+    // Producers add unique values while consumers poll: every value is polled exactly once, and poll returns null
+    // only when the queue is really empty
+    private static void concurrentAddPollLosesNothing(int shards){
+        int producers = stressThreads() / 2, consumers = stressThreads() / 2, perProducer = 100_000;
+        MultiQueue<Integer> queue = new MultiQueue<>(shards);
+        AtomicIntegerArray polled = new AtomicIntegerArray(producers * perProducer);
+        AtomicLong count = new AtomicLong();
+        long total = (long) producers * perProducer;
+
+        runConcurrently(producers + consumers, 120, t -> {
+            if(t < producers){
+                for(int i = 0; i < perProducer; i++) queue.add(i * producers + t);
+            } else {
+                while(count.get() < total){
+                    Integer elem = queue.poll();
+                    if(elem == null){
+                        Thread.yield();
+                        continue;
+                    }
+                    check(polled.incrementAndGet(elem) == 1, "polled twice " + elem);
+                    count.incrementAndGet();
+                }
+            }
+        });
+
+        for(int i = 0; i < polled.length(); i++) check(polled.get(i) == 1, "lost " + i);
+        check(queue.isEmpty() && queue.size() == 0 && queue.poll() == null, "queue not empty");
+    }
+
+    // Sequentially the rank of each polled element (number of smaller elements still queued) must stay small on average
+    private static void relaxedPollStaysCloseToMinimum(){
+        int shards = 8, n = 50_000;
+        MultiQueue<Integer> queue = new MultiQueue<>(shards);
+        // Ranks computed with a Fenwick tree over the values still in the queue
+        int[] fenwick = new int[n + 1];
+        // A random permutation of [0, n)
+        Random random = new Random(24);
+        int[] values = new int[n];
+        for(int i = 0; i < n; i++){
+            int j = random.nextInt(i + 1);
+            values[i] = values[j];
+            values[j] = i;
+        }
+        for(int value : values){
+            queue.add(value);
+            for(int i = value + 1; i <= n; i += i & -i) fenwick[i]++;
+        }
+
+        long rankSum = 0;
+        for(int k = 0; k < values.length; k++){
+            int value = queue.poll();
+            int rank = 0;
+            for(int i = value; i > 0; i -= i & -i) rank += fenwick[i];
+            for(int i = value + 1; i <= n; i += i & -i) fenwick[i]--;
+            rankSum += rank;
+        }
+        check(queue.poll() == null, "queue not empty");
+
+        double meanRank = (double) rankSum / values.length;
+        System.out.printf("%d shards: mean rank error of polled elements %.2f%n", shards, meanRank);
+        // Two choice polling keeps the expected rank linear in the number of shards
+        check(meanRank < 2 * shards, "mean rank " + meanRank + " too far from the minimum with " + shards + " shards");
+    }
+
+    private static void throughputAgainstSynchronizedPQueue(){
+        int opsPerThread = 500_000, prefill = 100_000;
+
+        // Scaling can only show with at least as many cores as threads
+        System.out.println("throughput on " + Runtime.getRuntime().availableProcessors() + " cores:");
+        for(int threads : new int[]{1, 2, 4, 8}){
+            MultiQueue<Integer> relaxed = new MultiQueue<>(2 * threads);
+            long relaxedNanos = timeMixed(threads, opsPerThread, prefill, new Ops() {
+                public void add(Integer elem){ relaxed.add(elem); }
+                public void poll(){ relaxed.poll(); }
+            });
+
+            PQueue<Integer> heap = new PQueue<>();
+            Object lock = new Object();
+            long lockedNanos = timeMixed(threads, opsPerThread, prefill, new Ops() {
+                public void add(Integer elem){ synchronized (lock){ heap.add(elem); } }
+                public void poll(){ synchronized (lock){ heap.poll(); } }
+            });
+
+            double totalOps = (double) threads * opsPerThread;
+            System.out.printf("%d threads, 50%% add / 50%% poll: MultiQueue %.1f Mops/s, synchronized PQueue %.1f Mops/s%n",
+                    threads, totalOps * 1e3 / relaxedNanos, totalOps * 1e3 / lockedNanos);
+        }
+    }
+
+    private interface Ops {
+        void add(Integer elem);
+        void poll();
+    }
+
+    private static long timeMixed(int threads, int opsPerThread, int prefill, Ops ops){
+        Random random = new Random(25);
+        for(int i = 0; i < prefill; i++) ops.add(random.nextInt());
+
+        long start = System.nanoTime();
+        runConcurrently(threads, 120, t -> {
+            ThreadLocalRandom threadRandom = ThreadLocalRandom.current();
+            for(int i = 0; i < opsPerThread; i++){
+                if(threadRandom.nextBoolean()) ops.add(threadRandom.nextInt());
+                else ops.poll();
+            }
+        });
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,76 @@
+package dataStructures.stacksAndQueues;
+
+import java.lang.management.ManagementFactory;
+
+import static testUtils.Checks.check;
+
+/**
+ * Checks that the DLList based Stack and Queue allocate nothing in steady state when node pooling is enabled,
+ * measuring the bytes allocated by the current thread with com.sun.management.ThreadMXBean. Run as a plain main.
+ */
+public class NodePoolingAllocationTest {
+
+    private static final int OPS = 10_000_000;
+    // Elements in flight at once, within the pool bound
+    private static final int BURST = 8, POOLED_NODES = 16;
+    // Slack for allocations outside the measured structure, e.g. by the JIT compiler or the bean itself
+    private static final long MAX_POOLED_BYTES = 64 * 1024;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args){
+        check(THREADS.isThreadAllocatedMemorySupported(), "thread allocation counters not supported by this JVM");
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+
+        Integer[] values = new Integer[BURST];
+        for(int i = 0; i < BURST; i++) values[i] = 1_000 + i;
+
+        // Warm up first, so that the measured runs execute compiled code
+        for(int i = 0; i < 3; i++){
+            stackRounds(new Stack<>(POOLED_NODES), values, OPS / 10);
+            queueRounds(new Queue<>(POOLED_NODES), values, OPS / 10);
+            stackRounds(new Stack<>(), values, OPS / 10);
+            queueRounds(new Queue<>(), values, OPS / 10);
+        }
+
+        long pooledStack = allocatedBy(() -> stackRounds(new Stack<>(POOLED_NODES), values, OPS));
+        long pooledQueue = allocatedBy(() -> queueRounds(new Queue<>(POOLED_NODES), values, OPS));
+        long plainStack = allocatedBy(() -> stackRounds(new Stack<>(), values, OPS));
+        long plainQueue = allocatedBy(() -> queueRounds(new Queue<>(), values, OPS));
+
+        System.out.printf("%d push/pop + %d enqueue/dequeue: pooled %d bytes, not pooled %d bytes%n",
+                OPS, OPS, pooledStack + pooledQueue, plainStack + plainQueue);
+
+        check(pooledStack < MAX_POOLED_BYTES, "pooled Stack allocated " + pooledStack + " bytes");
+        check(pooledQueue < MAX_POOLED_BYTES, "pooled Queue allocated " + pooledQueue + " bytes");
+        // Without pooling every insertion allocates a node: the measurement must be able to see it
+        check(plainStack > (long) OPS * 8 && plainQueue > (long) OPS * 8, "allocations of unpooled nodes not detected");
+        System.out.println("OK NodePoolingAllocationTest");
+    }
+
+    private static long allocatedBy(Runnable run){
+        long tid = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(tid);
+        run.run();
+        return THREADS.getThreadAllocatedBytes(tid) - before;
+    }
+
+    // ops pushes and ops pops in bursts, checking LIFO order
+    private static void stackRounds(Stack<Integer> stack, Integer[] values, int ops){
+        for(int done = 0; done < ops; done += BURST){
+            for(Integer value : values) stack.push(value);
+            for(int i = BURST - 1; i >= 0; i--) check(stack.pop() == values[i], "LIFO order");
+        }
+        check(stack.isEmpty(), "stack not empty");
+    }
+
+    // ops enqueues and ops dequeues in bursts, checking FIFO order
+    private static void queueRounds(Queue<Integer> queue, Integer[] values, int ops){
+        for(int done = 0; done < ops; done += BURST){
+            for(Integer value : values) queue.enqueue(value);
+            for(int i = 0; i < BURST; i++) check(queue.dequeue() == values[i], "FIFO order");
+        }
+        check(queue.isEmpty(), "queue not empty");
+    }
+}
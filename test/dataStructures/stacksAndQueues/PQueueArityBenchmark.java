@@ -0,0 +1,60 @@
+package dataStructures.stacksAndQueues;
+
+import java.util.Random;
+
+import static testUtils.Checks.bestOf;
+import static testUtils.Checks.check;
+
+/**
+ * Prints PQueue times for arity 2, 4 and 8 on insert heavy, poll heavy and mixed workloads (informative only).
+ * Every workload checks the polled values come out in order.
+ */
+public class PQueueArityBenchmark {
+
+    private static final int ELEMS = 500_000, TRIALS = 3;
+
+    public static void main(String[] args){
+        Random random = new Random(20);
+        Integer[] values = new Integer[ELEMS];
+        for(int i = 0; i < ELEMS; i++) values[i] = random.nextInt();
+
+        System.out.printf("%d elements:       insert heavy   poll heavy        mixed%n", ELEMS);
+        for(int arity : new int[]{2, 4, 8}){
+            long insertHeavy = bestOf(TRIALS, () -> insertHeavy(arity));
+            long pollHeavy = bestOf(TRIALS, () -> pollHeavy(values, arity));
+            long mixed = bestOf(TRIALS, () -> mixed(values, arity));
+            System.out.printf("  arity %d       %9.1f ms %9.1f ms %9.1f ms%n", arity, insertHeavy / 1e6, pollHeavy / 1e6, mixed / 1e6);
+        }
+        System.out.println("OK PQueueArityBenchmark");
+    }
+
+    // All adds, decreasing values so each one sifts up to the root, then a few polls
+    private static void insertHeavy(int arity){
+        PQueue<Integer> queue = new PQueue<>(1, arity);
+        for(int i = 0; i < ELEMS; i++) queue.add(ELEMS - i);
+        for(int i = 1; i <= 100; i++) check(queue.poll() == i, "insert heavy poll");
+    }
+
+    // Heap built in O(n) by heapify, then drained: all the work is in the sift downs
+    private static void pollHeavy(Integer[] values, int arity){
+        PQueue<Integer> queue = new PQueue<>(values, arity);
+        int previous = Integer.MIN_VALUE;
+        for(int i = 0; i < ELEMS; i++){
+            int next = queue.poll();
+            check(previous <= next, "poll heavy order");
+            previous = next;
+        }
+    }
+
+    // Half the elements prefilled, then each add of a random value is followed by a poll
+    private static void mixed(Integer[] values, int arity){
+        PQueue<Integer> queue = new PQueue<>(1, arity);
+        for(int i = 0; i < ELEMS / 2; i++) queue.add(values[i]);
+        for(int i = ELEMS / 2; i < ELEMS; i++){
+            Integer value = values[i];
+            queue.add(value);
+            check(queue.poll() <= value, "mixed poll above the added value");
+        }
+        check(queue.size() == ELEMS / 2, "mixed size");
+    }
+}
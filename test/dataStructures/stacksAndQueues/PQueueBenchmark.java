@@ -0,0 +1,95 @@
+package dataStructures.stacksAndQueues;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static testUtils.Checks.bestOf;
+import static testUtils.Checks.check;
+
+/**
+ * Differential test of PQueue against java.util.PriorityQueue, including contains and remove(T) on duplicated values,
+ * run as a plain main. Also prints add/poll throughput of PQueue, with and without its position index built,
+ * against PriorityQueue (informative only).
+ */
+public class PQueueBenchmark {
+
+    private static final int ELEMS = 500_000, TRIALS = 3;
+
+    public static void main(String[] args){
+        for(int arity : new int[]{2, 4, 8}) matchesPriorityQueue(new Random(18 + arity), arity);
+        addPollThroughput();
+        System.out.println("OK PQueueBenchmark");
+    }
+
+    /**
+     * Random add, poll, contains and remove against a PriorityQueue. Values come from a small range,
+     * so the index keeps chains of equal values which remove(T) must unlink one at a time
+     */
+    private static void matchesPriorityQueue(Random random, int arity){
+        PQueue<Integer> queue = new PQueue<>(1, arity);
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+
+        for(int i = 0; i < 200_000; i++){
+            // Bounded size keeps the linear PriorityQueue.remove cheap
+            int op = expected.size() < 2_000 ? random.nextInt(10) : 4 + random.nextInt(6);
+            Integer value = random.nextInt(500);
+            if(op < 4 || expected.isEmpty()){
+                queue.add(value);
+                expected.add(value);
+            } else if(op < 6){
+                check(queue.poll().equals(expected.poll()), "poll");
+            } else if(op < 8){
+                check(queue.contains(value) == expected.contains(value), "contains " + value);
+            } else {
+                check(queue.remove(value) == expected.remove(value), "remove " + value);
+            }
+
+            check(queue.size() == expected.size(), "size");
+            check(queue.isEmpty() ? expected.isEmpty() : queue.peek().equals(expected.peek()), "peek");
+        }
+
+        while(!expected.isEmpty()) check(queue.poll().equals(expected.poll()), "final poll");
+        check(queue.isEmpty() && queue.poll() == null, "queue not empty");
+    }
+
+    // Fills with ELEMS random values then drains, the polled sequence must be sorted
+    private static void addPollThroughput(){
+        Random random = new Random(181);
+        Integer[] values = new Integer[ELEMS];
+        for(int i = 0; i < ELEMS; i++) values[i] = random.nextInt();
+
+        long plain = bestOf(TRIALS, () -> {
+            PQueue<Integer> queue = new PQueue<>();
+            for(Integer value : values) queue.add(value);
+            drainSorted(queue::poll);
+        });
+        // A first contains builds the position index, every later add and poll maintains it
+        long indexed = bestOf(TRIALS, () -> {
+            PQueue<Integer> queue = new PQueue<>();
+            queue.contains(0);
+            for(Integer value : values) queue.add(value);
+            drainSorted(queue::poll);
+        });
+        long reference = bestOf(TRIALS, () -> {
+            PriorityQueue<Integer> queue = new PriorityQueue<>();
+            for(Integer value : values) queue.add(value);
+            drainSorted(queue::poll);
+        });
+
+        System.out.printf("%d adds then polls:%n", ELEMS);
+        System.out.printf("  PQueue                  %6.1f ms%n", plain / 1e6);
+        System.out.printf("  PQueue, index built     %6.1f ms%n", indexed / 1e6);
+        System.out.printf("  java.util.PriorityQueue %6.1f ms%n", reference / 1e6);
+    }
+
+    private static void drainSorted(Supplier<Integer> poll){
+        Integer previous = poll.get(), next;
+        for(int i = 1; i < ELEMS; i++){
+            next = poll.get();
+            check(previous <= next, "polled out of order");
+            previous = next;
+        }
+        check(poll.get() == null, "elements left after the drain");
+    }
+}
@@ -0,0 +1,157 @@
+package dataStructures.stacksAndQueues;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static testUtils.Checks.check;
+
+/**
+ * Differential test of PairingHeap against java.util.PriorityQueue, including decreaseKey through handles,
+ * meld and clear, plus the rejection of handles which are not (or no longer) in the heap. Run as a plain main.
+ */
+public class PairingHeapTest {
+
+    // Unique (key, id) elements, thus the min is always unambiguous
+    private static final class Item implements Comparable<Item> {
+        final int key, id;
+
+        Item(int key, int id){
+            this.key = key;
+            this.id = id;
+        }
+
+        @Override public int compareTo(Item o){
+            return key != o.key ? Integer.compare(key, o.key) : Integer.compare(id, o.id);
+        }
+        @Override public boolean equals(Object o){ return o instanceof Item && ((Item) o).id == id && ((Item) o).key == key; }
+        @Override public int hashCode(){ return 31 * key + id; }
+        @Override public String toString(){ return key + "#" + id; }
+    }
+
+    private static int nextId = 0;
+
+    public static void main(String[] args){
+        matchesPriorityQueue(new Random(22));
+        staleHandlesAreRejected();
+        System.out.println("OK PairingHeapTest");
+    }
+
+    /**
+     * Random add, poll, decreaseKey and meld against a PriorityQueue. Live handles are tracked to pick decreaseKey
+     * targets, including handles that came with a melded heap
+     */
+    private static void matchesPriorityQueue(Random random){
+        PairingHeap<Item> heap = new PairingHeap<>();
+        PriorityQueue<Item> expected = new PriorityQueue<>();
+        List<PairingHeap.Handle<Item>> handles = new ArrayList<>();
+
+        for(int i = 0; i < 200_000; i++){
+            // Bounded size keeps the linear PriorityQueue.remove of decreaseKey cheap
+            int op = expected.size() < 2_000 ? random.nextInt(10) : 4 + random.nextInt(5);
+            if(op < 4 || expected.isEmpty()){
+                Item item = new Item(random.nextInt(100_000), nextId++);
+                handles.add(heap.add(item));
+                expected.add(item);
+            } else if(op < 7){
+                Item polled = heap.poll();
+                check(polled.equals(expected.poll()), "poll");
+                removeHandleOf(handles, polled);
+            } else if(op < 9){
+                int idx = random.nextInt(handles.size());
+                PairingHeap.Handle<Item> handle = handles.get(idx);
+                Item old = handle.getValue();
+                Item lower = new Item(old.key - random.nextInt(1_000), old.id);
+                heap.decreaseKey(handle, lower);
+                check(expected.remove(old), "decreased element missing from the reference");
+                expected.add(lower);
+            } else {
+                // A small heap melded in, its handles must keep working on this one
+                PairingHeap<Item> other = new PairingHeap<>();
+                for(int k = random.nextInt(20); k > 0; k--){
+                    Item item = new Item(random.nextInt(100_000), nextId++);
+                    handles.add(other.add(item));
+                    expected.add(item);
+                }
+                heap.meld(other);
+                check(other.isEmpty() && other.size() == 0 && other.peek() == null, "melded heap not emptied");
+            }
+
+            check(heap.size() == expected.size(), "size");
+            check(heap.isEmpty() ? expected.isEmpty() : heap.peek().equals(expected.peek()), "peek");
+        }
+
+        while(!expected.isEmpty()) check(heap.poll().equals(expected.poll()), "final poll");
+        check(heap.isEmpty() && heap.poll() == null, "heap not empty");
+    }
+
+    private static void removeHandleOf(List<PairingHeap.Handle<Item>> handles, Item item){
+        for(int i = 0; i < handles.size(); i++){
+            if(handles.get(i).getValue() == item){
+                handles.set(i, handles.get(handles.size() - 1));
+                handles.remove(handles.size() - 1);
+                return;
+            }
+        }
+        throw new AssertionError("no handle for polled " + item);
+    }
+
+    private static void staleHandlesAreRejected(){
+        PairingHeap<Item> heap = new PairingHeap<>(), other = new PairingHeap<>();
+
+        // Polled element
+        PairingHeap.Handle<Item> polled = heap.add(new Item(1, nextId++));
+        heap.add(new Item(5, nextId++));
+        heap.poll();
+        expectRejected(heap, polled, "handle of a polled element");
+
+        // Element of another heap
+        PairingHeap.Handle<Item> foreign = other.add(new Item(3, nextId++));
+        expectRejected(heap, foreign, "handle of another heap");
+
+        // Regression: handles dropped by clear used to stay valid and relink dead nodes into the heap
+        List<PairingHeap.Handle<Item>> cleared = new ArrayList<>();
+        for(int i = 0; i < 10; i++) cleared.add(heap.add(new Item(100 + i, nextId++)));
+        heap.clear();
+        for(PairingHeap.Handle<Item> handle : cleared) expectRejected(heap, handle, "handle dropped by clear");
+        check(heap.isEmpty() && heap.peek() == null, "stale decreaseKey changed a cleared heap");
+
+        // After meld, handles of other belong to heap: heap accepts them, other rejects them
+        heap.add(new Item(50, nextId++));
+        heap.meld(other);
+        expectRejected(other, foreign, "handle moved away by meld");
+        heap.decreaseKey(foreign, new Item(0, foreign.getValue().id));
+        check(heap.peek() == foreign.getValue(), "decreaseKey of a melded handle");
+
+        // Handles of a later generation of other are not confused with the melded ones
+        PairingHeap.Handle<Item> fresh = other.add(new Item(7, nextId++));
+        expectRejected(heap, fresh, "handle added to other after the meld");
+        other.decreaseKey(fresh, new Item(6, fresh.getValue().id));
+        check(other.peek().key == 6 && other.size() == 1, "decreaseKey on the reused heap");
+
+        // Forwarding chains through several melds and clears
+        PairingHeap<Item> a = new PairingHeap<>(), b = new PairingHeap<>(), c = new PairingHeap<>();
+        PairingHeap.Handle<Item> inC = c.add(new Item(30, nextId++));
+        b.add(new Item(20, nextId++));
+        a.add(new Item(10, nextId++));
+        b.meld(c);
+        a.meld(b);
+        a.decreaseKey(inC, new Item(1, inC.getValue().id));
+        check(a.poll() == inC.getValue(), "decreaseKey through two melds");
+        expectRejected(a, inC, "polled handle through two melds");
+        a.clear();
+        expectRejected(b, inC, "handle through melds then clear");
+    }
+
+    private static void expectRejected(PairingHeap<Item> heap, PairingHeap.Handle<Item> handle, String what){
+        int size = heap.size();
+        try {
+            heap.decreaseKey(handle, new Item(Integer.MIN_VALUE, handle.getValue().id));
+        } catch (IllegalArgumentException e) {
+            check(heap.size() == size, what + ": size changed");
+            return;
+        }
+        throw new AssertionError(what + ": decreaseKey accepted");
+    }
+}
@@ -0,0 +1,89 @@
+package dataStructures.stacksAndQueues;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static testUtils.Checks.check;
+
+/**
+ * Differential test of RadixHeap against a TreeSet of packed (key, id) pairs, run as a plain main.
+ * Peeks are interleaved everywhere: peekMinKey must never change what later pushes and pops see.
+ */
+public class RadixHeapTest {
+
+    public static void main(String[] args){
+        for(int maxGap : new int[]{0, 3, 1_000, Integer.MAX_VALUE / 4}){
+            matchesTreeSet(new Random(21 + maxGap), maxGap);
+        }
+        peekKeepsTheMonotoneFloor();
+        clearResetsTheFloor();
+        System.out.println("OK RadixHeapTest");
+    }
+
+    private static long pack(int key, int id){
+        return ((long) key << 32) | id;
+    }
+
+    // Keys pushed at most maxGap above the last extracted one: 0 makes every key equal, large gaps hit the high buckets
+    private static void matchesTreeSet(Random random, int maxGap){
+        RadixHeap heap = new RadixHeap();
+        TreeSet<Long> expected = new TreeSet<>();
+        int nextId = 0;
+
+        for(int i = 0; i < 300_000; i++){
+            if(expected.isEmpty() || random.nextInt(5) < 3){
+                long key = (long) heap.lastKey() + (maxGap == 0 ? 0 : random.nextInt(maxGap + 1));
+                if(key > Integer.MAX_VALUE) key = heap.lastKey();
+                heap.push((int) key, nextId);
+                expected.add(pack((int) key, nextId++));
+            } else {
+                int minKey = (int) (expected.first() >>> 32);
+                if(random.nextBoolean()) check(heap.peekMinKey() == minKey, "peekMinKey");
+
+                int id = heap.popMin();
+                check(heap.lastKey() == minKey, "lastKey " + heap.lastKey() + " expected " + minKey);
+                // Any id with the min key may come out
+                check(expected.remove(pack(minKey, id)), "popped id " + id + " has not the min key " + minKey);
+            }
+            check(heap.size() == expected.size(), "size");
+        }
+    }
+
+    // Regression: peeking used to move the floor up to the min key, rejecting pushes between the two
+    private static void peekKeepsTheMonotoneFloor(){
+        RadixHeap heap = new RadixHeap();
+        heap.push(10, 1);
+        check(heap.popMin() == 1 && heap.lastKey() == 10, "pop");
+
+        heap.push(1_000, 2);
+        heap.push(70_000, 3);
+        for(int i = 0; i < 3; i++) check(heap.peekMinKey() == 1_000, "repeated peek");
+        check(heap.lastKey() == 10, "peek moved lastKey to " + heap.lastKey());
+
+        // Still valid after the peek: smaller than the peeked min, not smaller than the last extracted key
+        heap.push(10, 4);
+        heap.push(500, 5);
+        check(heap.peekMinKey() == 10 && heap.popMin() == 4, "key equal to the floor");
+        check(heap.peekMinKey() == 500 && heap.popMin() == 5, "key below the previously peeked min");
+        check(heap.popMin() == 2 && heap.popMin() == 3 && heap.isEmpty(), "remaining order");
+
+        boolean thrown = false;
+        try { heap.push(69_999, 6); } catch (IllegalArgumentException e) { thrown = true; }
+        check(thrown, "key below the last extracted one accepted");
+    }
+
+    private static void clearResetsTheFloor(){
+        RadixHeap heap = new RadixHeap();
+        heap.push(1 << 20, 1);
+        heap.popMin();
+        heap.push(1 << 21, 2);
+        heap.clear();
+        check(heap.isEmpty() && heap.lastKey() == 0, "clear");
+        heap.push(0, 3);
+        check(heap.peekMinKey() == 0 && heap.popMin() == 3, "push after clear");
+
+        boolean thrown = false;
+        try { heap.peekMinKey(); } catch (RuntimeException e) { thrown = true; }
+        check(thrown, "peek on an empty heap did not throw");
+    }
+}
@@ -0,0 +1,80 @@
+package testUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Minimal support for the self checking test mains under test/: there is no test framework in the project.
+ * A failed check throws AssertionError, so a failing test main exits with a non zero status.
+ */
+public final class Checks {
+
+    private Checks(){}
+
+    public static void check(boolean condition, String message){
+        if(!condition) throw new AssertionError(message);
+    }
+
+    // Min elapsed time in ns of trials runs of body: the first runs include JIT compilation and GC noise is one sided
+    public static long bestOf(int trials, Runnable body){
+        long best = Long.MAX_VALUE;
+        for(int i = 0; i < trials; i++){
+            long start = System.nanoTime();
+            body.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    // Threads used by the stress tests: oversubscribing the cores makes preemption in the middle of an operation likely
+    public static int stressThreads(){
+        return Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Runs body(threadIdx) on n threads released together, waits for all of them and rethrows the first failure.
+     * Fails if they do not complete within timeoutSeconds, e.g. because of a lost wakeup or a livelock
+     */
+    public static void runConcurrently(int n, long timeoutSeconds, IntConsumer body){
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> failures = new ArrayList<>();
+        Thread[] threads = new Thread[n];
+
+        for(int i = 0; i < n; i++){
+            int threadIdx = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                    body.accept(threadIdx);
+                } catch (Throwable e) {
+                    synchronized (failures){ failures.add(e); }
+                }
+            }, "stress-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        try {
+            for(Thread thread : threads){
+                thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+                if(thread.isAlive()) throw new AssertionError("Timeout waiting for " + thread.getName());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted", e);
+        }
+
+        synchronized (failures){
+            if(!failures.isEmpty()){
+                AssertionError error = new AssertionError("Failure in a concurrent thread", failures.get(0));
+                for(int i = 1; i < failures.size(); i++) error.addSuppressed(failures.get(i));
+                throw error;
+            }
+        }
+    }
+}